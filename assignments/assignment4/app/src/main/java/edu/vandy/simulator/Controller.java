@@ -39,6 +39,29 @@ public class Controller {
      */
     private static boolean mPerformanceMode = false;
 
+    /**
+     * The number of incremental model deltas published between
+     * full model snapshots. A value of 0 disables incremental
+     * mode so that a full snapshot is published on every model
+     * state change.
+     */
+    private static int mFullSnapshotInterval = 0;
+
+    /**
+     * The maximum rate (per second) at which coalesced model changes
+     * are published by a separate dispatcher thread. A value of 0
+     * publishes every model state change synchronously on the thread
+     * that made the change.
+     */
+    private static int mSnapshotRate = 0;
+
+    /**
+     * Flag used to run simulations on a virtual clock so that
+     * all state durations advance simulated time instead of
+     * pausing being threads.
+     */
+    private static boolean mVirtualTimeMode = false;
+
     /**
      * Prevent construction of this class.
      */
@@ -130,6 +153,84 @@ public class Controller {
         mPerformanceMode = enabled;
     }
 
+    /**
+     * @return The number of model deltas published between full
+     * model snapshots, or 0 if incremental mode is disabled.
+     */
+    public static int getFullSnapshotInterval() {
+        return mFullSnapshotInterval;
+    }
+
+    /**
+     * Sets the number of incremental model deltas that are published
+     * between full model snapshots. When set to 0 (the default), every
+     * model state change publishes a full snapshot of every being and
+     * palantir. Any value > 0 enables incremental mode where each state
+     * change only publishes a {@link
+     * edu.vandy.simulator.model.implementation.snapshots.ModelDelta}
+     * containing the changed components.
+     *
+     * @param interval The full snapshot interval (>= 0).
+     */
+    public static void setFullSnapshotInterval(int interval) {
+        if (interval >= 0) {
+            mFullSnapshotInterval = interval;
+        } else {
+            throw new InvalidParameterException(
+                    "full snapshot interval must be >= 0");
+        }
+    }
+
+    /**
+     * @return The maximum number of coalesced model publications per
+     * second, or 0 if model changes are published synchronously.
+     */
+    public static int getSnapshotRate() {
+        return mSnapshotRate;
+    }
+
+    /**
+     * Sets the maximum rate at which model changes are published.
+     * When set to 0 (the default), every component state change
+     * builds and delivers a snapshot (or delta) on the thread that
+     * changed state, so slow observers slow down every being. Any
+     * value > 0 enables dispatcher mode where being threads only
+     * mark components as changed and a single dispatcher thread
+     * publishes all changes made since its last tick, at most rate
+     * times per second (e.g., 60 to match the display refresh rate).
+     *
+     * @param rate The maximum publications per second (>= 0).
+     */
+    public static void setSnapshotRate(int rate) {
+        if (rate >= 0) {
+            mSnapshotRate = rate;
+        } else {
+            throw new InvalidParameterException(
+                    "snapshot rate must be >= 0");
+        }
+    }
+
+    /**
+     * @return {@code true} if simulations run on a virtual clock.
+     */
+    public static boolean isVirtualTimeMode() {
+        return mVirtualTimeMode;
+    }
+
+    /**
+     * Sets "virtual time" mode in which all state durations (e.g.,
+     * gazing times) advance a simulated clock instead of pausing
+     * being threads so that long running simulations complete in a
+     * fraction of the wall time. Unlike performance mode, all state
+     * durations are preserved. This mode should only be changed
+     * while no simulation is running.
+     *
+     * @param enabled True to enable, false to disable.
+     */
+    public static void setVirtualTimeMode(boolean enabled) {
+        mVirtualTimeMode = enabled;
+    }
+
     /**
      * Outputs logging message only if logging is enabled.
      *
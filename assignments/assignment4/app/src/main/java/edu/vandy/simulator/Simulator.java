@@ -3,13 +3,20 @@ package edu.vandy.simulator;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -17,17 +24,20 @@ import edu.vandy.simulator.managers.beings.Being;
 import edu.vandy.simulator.managers.beings.BeingManager;
 import edu.vandy.simulator.managers.palantiri.Palantir;
 import edu.vandy.simulator.managers.palantiri.PalantiriManager;
+import edu.vandy.simulator.model.base.BaseComponent;
 import edu.vandy.simulator.model.base.BaseSnapshot;
 import edu.vandy.simulator.model.implementation.components.BeingComponent;
 import edu.vandy.simulator.model.implementation.components.PalantirComponent;
 import edu.vandy.simulator.model.implementation.components.SimulatorModel;
 import edu.vandy.simulator.model.implementation.snapshots.BeingSnapshot;
+import edu.vandy.simulator.model.implementation.snapshots.ModelDelta;
 import edu.vandy.simulator.model.implementation.snapshots.ModelSnapshot;
 import edu.vandy.simulator.model.implementation.snapshots.PalantirSnapshot;
 import edu.vandy.simulator.model.implementation.snapshots.SimulatorSnapshot;
 import edu.vandy.simulator.model.interfaces.ModelComponent;
 import edu.vandy.simulator.model.interfaces.ModelController;
 import edu.vandy.simulator.model.interfaces.ModelObserver;
+import edu.vandy.simulator.utils.VirtualClock;
 
 import static edu.vandy.simulator.model.implementation.components.SimulatorComponent.State.CANCELLED;
 import static edu.vandy.simulator.model.implementation.components.SimulatorComponent.State.CANCELLING;
@@ -85,7 +95,7 @@ public class Simulator
      * is then pushed to the presentation layer so that it can perform
      * the initial rendering of a new model.
      */
-    private ModelSnapshot mModelSnapshot = new ModelSnapshot();
+    private volatile ModelSnapshot mModelSnapshot = new ModelSnapshot();
     /**
      * Flag indicating if multiple shutdown and reset calls should throw
      * exceptions or just issue a warning message.
@@ -110,6 +120,17 @@ public class Simulator
      */
     private AtomicBoolean mRunning = new AtomicBoolean(false);
 
+    /**
+     * Lock used with the condition below.
+     */
+    private final ReentrantLock mRunningLock = new ReentrantLock();
+
+    /**
+     * Signalled when the mRunning flag is cleared so that a shutdown
+     * can wait for the simulation thread without polling.
+     */
+    private final Condition mStopped = mRunningLock.newCondition();
+
     /**
      * Atomic boolean flag that is set when a shutdown has been
      * requested and is cleared when the shutdown sequence has
@@ -117,6 +138,18 @@ public class Simulator
      */
     private AtomicBoolean mShutdown = new AtomicBoolean(false);
 
+    /**
+     * Striped locks that guard being/palantir link changes so that a
+     * snapshot never captures a partially linked pair. Each link is
+     * guarded by the stripe selected by its palantir id so that
+     * beings gazing into different palantiri rarely contend, and a
+     * full snapshot locks every stripe (in index order) to capture a
+     * consistent cut of all links. Explicit locks are used rather
+     * than monitors so that beings running on virtual threads are
+     * never pinned to their carrier thread while waiting for them.
+     */
+    private final Lock[] mLinkLocks = newLinkLocks();
+
     /**
      * Keeps track of the thread calls startSimulation so that
      * it can be interrupted from the shutdown method.
@@ -244,6 +277,11 @@ public class Simulator
             // Ensure we're in the appropriate start state.
             validateStartState();
 
+            // Start each run at virtual time 0.
+            if (Controller.isVirtualTimeMode()) {
+                VirtualClock.reset(mBeingManager.getConcurrency(), mBeingCount);
+            }
+
             // Set running status and update state.
             setState(RUNNING);
 
@@ -278,8 +316,14 @@ public class Simulator
                 // reset all their managed components (beings and palantiri).
                 reset();
 
-                // Clear running flag.
-                mRunning.set(false);
+                // Clear running flag and wake any waiting shutdown.
+                mRunningLock.lock();
+                try {
+                    mRunning.set(false);
+                    mStopped.signalAll();
+                } finally {
+                    mRunningLock.unlock();
+                }
             }
         }
     }
@@ -334,10 +378,10 @@ public class Simulator
         require(isRunning(),
                 "validateEndState: mRunning flag should be set.");
 
-        if (isShutdown() || getState() == CANCELLED) {
-            // If shutting down or already shutdown (cancelled)
-            // do not perform any model checking.
-            warn("Simulation was shutdown or was cancelled " +
+        if (isShutdown() || getState() == CANCELLED || getState() == ERROR) {
+            // If shutting down, already shutdown (cancelled), or
+            // failed, do not perform any model checking.
+            warn("Simulation was shutdown, was cancelled, or failed " +
                     "so no model checking will be performed");
             return;
         }
@@ -430,8 +474,64 @@ public class Simulator
         being.setState(BeingComponent.State.WAITING);
 
         // Route the palantir request to the palantiri manager.
-        Palantir palantir = mPalantiriManager.acquirePalantir(being.getId());
+        return linkPalantir(being, acquireFromManager(being));
+    }
+
+    /**
+     * Called by BeingManager to request the next free Palantir
+     * without blocking the calling thread. This request is routed
+     * to the current PalantiriManager instance, which completes the
+     * returned future when a Palantir is released to this being.
+     *
+     * @param being The Being instance.
+     * @return A future that completes with the acquired Palantir.
+     */
+    public CompletableFuture<Palantir> acquirePalantirAsync(Being being) {
+        // The being is WAITING until the future is completed.
+        being.setState(BeingComponent.State.WAITING);
+
+        CompletableFuture<Palantir> future;
+        CompletableFuture<Palantir> linked;
+
+        if (!Controller.isVirtualTimeMode()) {
+            future = mPalantiriManager.acquirePalantirAsync(being.getId());
+            linked = future.thenApply(palantir -> linkPalantir(being, palantir));
+        } else {
+            // The being counts as blocked until its future completes,
+            // even though no thread is waiting on its behalf.
+            VirtualClock.acquireStarted();
+            try {
+                future = mPalantiriManager.acquirePalantirAsync(being.getId());
+            } catch (RuntimeException e) {
+                VirtualClock.acquireFinished();
+                throw e;
+            }
+
+            linked = future
+                    .whenComplete((palantir, throwable) -> VirtualClock.acquireFinished())
+                    .thenApply(palantir -> linkPalantir(being, palantir));
+        }
+
+        // Cancelling the returned future withdraws the request
+        // so that the palantiri manager skips it.
+        linked.whenComplete((palantir, throwable) -> {
+            if (linked.isCancelled()) {
+                future.cancel(false);
+            }
+        });
 
+        return linked;
+    }
+
+    /**
+     * Links a newly acquired palantir to the being that acquired it
+     * after checking that neither is still linked to another.
+     *
+     * @param being    The Being instance.
+     * @param palantir The acquired palantir.
+     * @return The acquired palantir.
+     */
+    private Palantir linkPalantir(Being being, Palantir palantir) {
         if (palantir != null) {
             // Keep track of all acquired palantiri and make sure that the
             // current being and palantir manager implementations have no
@@ -457,11 +557,15 @@ public class Simulator
             // Synchronize these 2 statements so that a snapshot
             // will never be captured when another being triggers
             // one between these two statements.
-            synchronized (this) {
+            Lock lock = getLinkLock(palantir);
+            lock.lock();
+            try {
                 // The Being now "owns" the Palantir.
                 being.setPalantirId(palantir.getId());
                 // The Palantir is now "owned" by the Being.
                 palantir.setBeingId(being.getId());
+            } finally {
+                lock.unlock();
             }
 
             // Note that we don't trigger a snapshot
@@ -475,6 +579,27 @@ public class Simulator
         return palantir;
     }
 
+    /**
+     * Routes a palantir request to the palantiri manager. In virtual
+     * time mode, the being is counted as blocked for the duration of
+     * the call so that the virtual clock can advance while it waits.
+     *
+     * @param being The Being instance.
+     * @return The acquired palantir.
+     */
+    private Palantir acquireFromManager(Being being) {
+        if (!Controller.isVirtualTimeMode()) {
+            return mPalantiriManager.acquirePalantir(being.getId());
+        }
+
+        VirtualClock.acquireStarted();
+        try {
+            return mPalantiriManager.acquirePalantir(being.getId());
+        } finally {
+            VirtualClock.acquireFinished();
+        }
+    }
+
     /**
      * Performs a being request to gaze at the previously
      * acquired palantir for a random interval of time.
@@ -497,6 +622,30 @@ public class Simulator
         being.setState(BeingComponent.State.BUSY);
     }
 
+    /**
+     * Asynchronous version of {@link #gazeIntoPalantir} for beings
+     * that don't run on a thread of their own.
+     *
+     * @param being    The being that is requesting to gaze.
+     * @param palantir The palantir previously acquired by a call
+     *                 to {@link #acquirePalantirAsync}.
+     * @param executor The executor that runs dependent actions.
+     * @return A future that completes when the gazing delay has
+     * elapsed.
+     */
+    public CompletableFuture<Void> gazeIntoPalantirAsync(Being being,
+                                                         Palantir palantir,
+                                                         Executor executor) {
+        require(being.getPalantirId() == palantir.getId() &&
+                        palantir.getBeingId() == being.getId(),
+                "Gazing error: being[%d] and " +
+                        "palantir[%d] ids do not match.",
+                being.getId(),
+                palantir.getId());
+
+        return being.setStateAsync(BeingComponent.State.BUSY, executor);
+    }
+
     /**
      * Called be BeingManager to release a previously acquired
      * Palantir resource. This request is simply routed to the current
@@ -514,18 +663,33 @@ public class Simulator
                     being.getId(),
                     palantir.getId());
 
-            // Clear linked ids and return to the IDLE state BEFORE
+            // Return to the IDLE state and clear linked ids BEFORE
             // officially releasing the Palantir so that snapshots
-            // capture a valid model state.
-            synchronized (this) {
+            // capture a valid model state. The state change is made
+            // first (and outside of the link lock) since it triggers
+            // a snapshot that may need to lock every stripe. An IDLE
+            // being whose palantir is still linked is a valid state
+            // (the same as a WAITING being that has just acquired).
+            being.setState(BeingComponent.State.IDLE);
+
+            Lock lock = getLinkLock(palantir);
+            lock.lock();
+            try {
                 being.setPalantirId(-1);
                 palantir.setBeingId(-1);
-                being.setState(BeingComponent.State.IDLE);
+            } finally {
+                lock.unlock();
             }
 
             // Decrement the gazing count before releasing the palantir.
             decrementGazingCount();
 
+            // Mark the handoff to any waiting being so that the
+            // virtual clock won't advance before the waiter runs.
+            if (Controller.isVirtualTimeMode()) {
+                VirtualClock.releaseStarted();
+            }
+
             mPalantiriManager.releasePalantir(palantir);
         } else {
             being.setState(BeingComponent.State.ERROR,
@@ -615,9 +779,14 @@ public class Simulator
                     mPalantiriManager.shutdown();
                 }
             }
-            // Busy wait for simulation thread to end.
-            while (isRunning()) {
-                Thread.sleep(50);
+            // Wait for the simulation thread to end.
+            mRunningLock.lock();
+            try {
+                while (isRunning()) {
+                    mStopped.await();
+                }
+            } finally {
+                mRunningLock.unlock();
             }
         } catch (Exception e) {
             warn("shutdown(): Encountered an exception!: " + e);
@@ -746,7 +915,8 @@ public class Simulator
 
     @Override
     public ModelSnapshot buildModelSnapshot(ModelComponent component) {
-        synchronized (this) {
+        lockAllLinks();
+        try {
             // Build a list of being component snapshots.
             Map<Long, BeingSnapshot> beingSnapshots =
                     getBeings().stream()
@@ -787,7 +957,7 @@ public class Simulator
 
             if (!modelSnapshot.getBeings().isEmpty()) {
                 // Create an immutable copy of this cached model snapshot
-                // before existing this synchronized block.
+                // before releasing the link lock.
                 modelSnapshot.getBeings().values().stream()
                         .filter(b -> b.getPalantirId() != -1)
                         .forEach(b -> {
@@ -800,62 +970,175 @@ public class Simulator
             }
 
             return modelSnapshot;
+        } finally {
+            unlockAllLinks();
         }
     }
 
     /**
-     * Updates a single component snapshot in the currently cached
-     * model snapshot.
+     * Builds a fresh full model snapshot and caches it as the most
+     * recently published full snapshot.
      *
      * @param component The component that is triggering this snapshot.
      */
     @Override
     public ModelSnapshot updateModelSnapshot(ModelComponent component) {
-        if (true) {
-            return buildModelSnapshot(component);
+        ModelSnapshot modelSnapshot = buildModelSnapshot(component);
+        mModelSnapshot = modelSnapshot;
+        return modelSnapshot;
+    }
+
+    /**
+     * Builds a model delta that only contains a fresh snapshot of
+     * the triggering component along with snapshots of any palantiri
+     * whose owning being has changed since they were last published.
+     * Unlike {@link #buildModelSnapshot}, the cost of this method
+     * does not depend on the number of beings in the model and it
+     * only locks the link stripes of modified palantiri. A being only
+     * changes its own links, so the triggering being's snapshot is
+     * always consistent with the links it has made.
+     *
+     * @param component The component that is triggering this delta.
+     */
+    @Override
+    public ModelDelta buildModelDelta(ModelComponent component) {
+        Map<Long, BeingSnapshot> beingSnapshots = new HashMap<>();
+        Map<Long, PalantirSnapshot> palantirSnapshots = new HashMap<>();
+
+        switch ((Type) component.getType()) {
+            case BEING:
+                beingSnapshots.put(component.getId(),
+                        ((Being) component).buildSnapshot());
+                break;
+            case PALANTIR:
+                palantirSnapshots.put(component.getId(),
+                        ((Palantir) component).buildSnapshot());
+                break;
+            default:
+                throw new IllegalStateException("Invalid component type.");
         }
 
-        synchronized (this) {
-            switch ((Type) component.getType()) {
-                case BEING:
-                    mModelSnapshot.getBeings().put(component.getId(),
-                            ((Being) component).buildSnapshot());
-                    break;
-                case PALANTIR:
-                    mModelSnapshot.getPalantiri().put(component.getId(),
-                            ((Palantir) component).buildSnapshot());
-                    break;
-                case SIMULATOR:
-                    mModelSnapshot.setSimulator(buildSnapshot());
-                    break;
-                default:
-                    throw new IllegalStateException("Invalid component type.");
+        // Palantiri only change when they are linked to or
+        // unlinked from a being (which is done while holding
+        // the palantir's link lock) so include only those
+        // palantiri that have been modified since the last delta.
+        getPalantiri()
+                .stream()
+                .filter(BaseComponent::isModified)
+                .forEach(palantir -> {
+                    Lock lock = getLinkLock(palantir);
+                    lock.lock();
+                    try {
+                        addModifiedPalantir(palantir, palantirSnapshots);
+                    } finally {
+                        lock.unlock();
+                    }
+                });
+
+        return new ModelDelta(
+                new SimulatorSnapshot(this),
+                beingSnapshots,
+                palantirSnapshots,
+                component);
+    }
+
+    /**
+     * Builds a single model delta containing fresh snapshots of all
+     * the passed components (and of any modified palantiri). This is
+     * called by the snapshot dispatcher thread, which is not the
+     * thread that changed the components, so all link stripes are
+     * locked to capture consistent being/palantir links.
+     *
+     * @param components The components that have changed.
+     */
+    @Override
+    public ModelDelta buildModelDelta(Collection<ModelComponent> components) {
+        Map<Long, BeingSnapshot> beingSnapshots = new HashMap<>();
+        Map<Long, PalantirSnapshot> palantirSnapshots = new HashMap<>();
+
+        lockAllLinks();
+        try {
+            for (ModelComponent component : components) {
+                switch ((Type) component.getType()) {
+                    case BEING:
+                        beingSnapshots.put(component.getId(),
+                                ((Being) component).buildSnapshot());
+                        break;
+                    case PALANTIR:
+                        palantirSnapshots.put(component.getId(),
+                                ((Palantir) component).buildSnapshot());
+                        break;
+                    default:
+                        throw new IllegalStateException("Invalid component type.");
+                }
             }
 
-            // Update any palantir snapshots for
-            // components that have been modified.
             getPalantiri()
                     .stream()
-                    //.filter(BaseComponent::isModified)
-                    .map(Palantir::buildSnapshot)
-                    .forEach(snapshot ->
-                            mModelSnapshot.getPalantiri().put(
-                                    snapshot.getId(),
-                                    snapshot));
-
-            // Create an immutable copy of this cached model snapshot
-            // before existing this synchronized block.
-            ModelSnapshot modelSnapshot = new ModelSnapshot(mModelSnapshot);
-            modelSnapshot.getBeings().values().stream()
-                    .filter(b -> b.getPalantirId() != -1)
-                    .forEach(b -> {
-                        PalantirSnapshot ps =
-                                modelSnapshot.getPalantiri().get(b.getPalantirId());
-                        if (ps.getBeingId() != b.getId()) {
-                            throwError("FRAMEWORK SYNCHRONIZATION ERROR!");
-                        }
-                    });
-            return modelSnapshot;
+                    .filter(BaseComponent::isModified)
+                    .forEach(palantir ->
+                            addModifiedPalantir(palantir, palantirSnapshots));
+        } finally {
+            unlockAllLinks();
+        }
+
+        return new ModelDelta(
+                new SimulatorSnapshot(this),
+                beingSnapshots,
+                palantirSnapshots,
+                this);
+    }
+
+    /**
+     * Clears the modified flag of a palantir and adds a fresh
+     * snapshot of it to the passed map. The caller must hold
+     * the palantir's link lock.
+     */
+    private static void addModifiedPalantir(Palantir palantir,
+                                            Map<Long, PalantirSnapshot> snapshots) {
+        palantir.clearModified();
+        snapshots.put(palantir.getId(), palantir.buildSnapshot());
+    }
+
+    /**
+     * @return An array of link locks whose length is the largest
+     * power of 2 that does not exceed 4 times the number of
+     * available processors.
+     */
+    private static Lock[] newLinkLocks() {
+        int stripes = Integer.highestOneBit(
+                4 * Runtime.getRuntime().availableProcessors());
+        Lock[] locks = new Lock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
+    }
+
+    /**
+     * @return The link lock stripe that guards the passed
+     * palantir and the being (if any) that owns it.
+     */
+    private Lock getLinkLock(Palantir palantir) {
+        return mLinkLocks[(int) (palantir.getId() & (mLinkLocks.length - 1))];
+    }
+
+    /**
+     * Locks every link stripe in index order so that all
+     * being/palantir links can be read as a consistent cut.
+     */
+    private void lockAllLinks() {
+        for (Lock lock : mLinkLocks) {
+            lock.lock();
+        }
+    }
+
+    /**
+     * Unlocks every link stripe in reverse index order.
+     */
+    private void unlockAllLinks() {
+        for (int i = mLinkLocks.length - 1; i >= 0; i--) {
+            mLinkLocks[i].unlock();
         }
     }
 
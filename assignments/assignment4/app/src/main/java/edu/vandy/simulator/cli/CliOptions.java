@@ -0,0 +1,248 @@
+package edu.vandy.simulator.cli;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Properties;
+
+import edu.vandy.simulator.managers.beings.BeingManager;
+import edu.vandy.simulator.managers.beings.rxJava.RxJavaMgr;
+import edu.vandy.simulator.managers.palantiri.PalantiriManager;
+import edu.vandy.simulator.managers.palantiri.spinLockHashMap.QueueLockHashMapMgr;
+
+/**
+ * Model parameters for a headless simulation run. Values are read
+ * from an optional properties file (--config) and then overridden by
+ * any command line flags. Property keys are the flag names without
+ * the leading dashes, e.g., {@code beings=1000}.
+ */
+class CliOptions {
+    /**
+     * The being managers that can run a simulation. The assignment
+     * stubs are left out since they never complete a simulation.
+     */
+    static final Collection<BeingManager.Factory.Type> BEING_MANAGERS =
+            EnumSet.of(BeingManager.Factory.Type.PARALLEL_STREAMS,
+                    BeingManager.Factory.Type.COMPLETABLE_FUTURES,
+                    BeingManager.Factory.Type.RX_JAVA,
+                    BeingManager.Factory.Type.STRUCTURED_CONCURRENCY,
+                    BeingManager.Factory.Type.VIRTUAL_THREADS);
+
+    /**
+     * The palantiri managers that can run a simulation. The
+     * assignment stubs are left out since they can't acquire a
+     * palantir.
+     */
+    static final Collection<PalantiriManager.Factory.Type> PALANTIRI_MANAGERS =
+            EnumSet.of(PalantiriManager.Factory.Type.ARRAY_BLOCKING_QUEUE,
+                    PalantiriManager.Factory.Type.QUEUE_LOCK_SEMAPHORE,
+                    PalantiriManager.Factory.Type.SUSPENDING_SPIN_LOCK_SEMAPHORE,
+                    PalantiriManager.Factory.Type.ATOMIC_BITMAP,
+                    PalantiriManager.Factory.Type.SHARDED_POOL);
+
+    /**
+     * Usage message printed for --help or invalid arguments.
+     */
+    static final String USAGE =
+            "Usage: SimulatorCli [options]\n"
+                    + "  --config <file>             properties file with any of the options below\n"
+                    + "  --beings <n>                number of beings (default 100)\n"
+                    + "  --palantiri <n>             number of palantiri (default 10)\n"
+                    + "  --threads <n>               number of threads, 0 = one per being (default 0)\n"
+                    + "  --iterations <n>            gazing iterations per being (default 100)\n"
+                    + "  --being-manager <type>      " + names(BEING_MANAGERS) + " (default virtual_threads)\n"
+                    + "  --palantiri-manager <type>  " + names(PALANTIRI_MANAGERS) + " (default array_blocking_queue)\n"
+                    + "  --rx-scheduler <type>       " + names(Arrays.asList(RxJavaMgr.SchedulerType.values())) + " (rx_java only)\n"
+                    + "  --lock-type <type>          " + names(Arrays.asList(QueueLockHashMapMgr.LockType.values())) + " (queue_lock_semaphore only, default mcs_spin_lock)\n"
+                    + "  --snapshot-interval <n>     model deltas between full snapshots (default 10000)\n"
+                    + "  --snapshot-rate <hz>        max coalesced publications/sec, 0 = synchronous (default 0)\n"
+                    + "  --virtual-time              run real state durations on a simulated clock\n"
+                    + "  --logging                   enable simulator logging\n"
+                    + "  --help                      print this message";
+
+    /**
+     * Model parameters and run settings (see {@link #USAGE}).
+     */
+    int beings = 100;
+    int palantiri = 10;
+    int threads = 0;
+    int iterations = 100;
+    BeingManager.Factory.Type beingManager =
+            BeingManager.Factory.Type.VIRTUAL_THREADS;
+    PalantiriManager.Factory.Type palantiriManager =
+            PalantiriManager.Factory.Type.ARRAY_BLOCKING_QUEUE;
+    RxJavaMgr.SchedulerType rxScheduler =
+            RxJavaMgr.SchedulerType.COMPUTATION;
+    QueueLockHashMapMgr.LockType lockType = null;
+    int snapshotInterval = 10_000;
+    int snapshotRate = 0;
+    boolean virtualTime = false;
+    boolean logging = false;
+    boolean help = false;
+
+    /**
+     * Parses the passed command line arguments.
+     *
+     * @param args Command line arguments.
+     * @return The parsed options.
+     * @throws IllegalArgumentException for an unknown flag, a missing
+     *                                  or invalid value, or an
+     *                                  unreadable config file.
+     */
+    static CliOptions parse(String[] args) {
+        CliOptions options = new CliOptions();
+
+        // Apply the config file first so that flags take precedence.
+        for (int i = 0; i < args.length - 1; i++) {
+            if (args[i].equals("--config")) {
+                options.load(args[i + 1]);
+            }
+        }
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+
+            if (arg.equals("--help")) {
+                options.help = true;
+            } else if (arg.equals("--logging")) {
+                options.logging = true;
+            } else if (arg.equals("--virtual-time")) {
+                options.virtualTime = true;
+            } else if (arg.startsWith("--")) {
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + arg);
+                }
+                String value = args[++i];
+                if (!arg.equals("--config")) {
+                    options.set(arg.substring(2), value);
+                }
+            } else {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+        }
+
+        return options;
+    }
+
+    /**
+     * Applies all options found in the specified properties file.
+     */
+    private void load(String path) {
+        Properties properties = new Properties();
+        try (Reader reader = new FileReader(path)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            throw new IllegalArgumentException(
+                    "Unable to read config file " + path + ": " + e.getMessage());
+        }
+
+        for (String key : properties.stringPropertyNames()) {
+            set(key, properties.getProperty(key).trim());
+        }
+    }
+
+    /**
+     * Sets a single option from its (flag) name and value.
+     */
+    private void set(String name, String value) {
+        try {
+            switch (name) {
+                case "beings":
+                    beings = positive(name, value);
+                    break;
+                case "palantiri":
+                    palantiri = positive(name, value);
+                    break;
+                case "threads":
+                    threads = Integer.parseInt(value);
+                    break;
+                case "iterations":
+                    iterations = positive(name, value);
+                    break;
+                case "being-manager":
+                    beingManager = supported(name, BEING_MANAGERS,
+                            BeingManager.Factory.Type.valueOf(
+                                    value.toUpperCase(Locale.ROOT)));
+                    break;
+                case "palantiri-manager":
+                    palantiriManager = supported(name, PALANTIRI_MANAGERS,
+                            PalantiriManager.Factory.Type.valueOf(
+                                    value.toUpperCase(Locale.ROOT)));
+                    break;
+                case "rx-scheduler":
+                    rxScheduler = RxJavaMgr.SchedulerType.valueOf(
+                            value.toUpperCase(Locale.ROOT));
+                    break;
+                case "lock-type":
+                    lockType = QueueLockHashMapMgr.LockType.valueOf(
+                            value.toUpperCase(Locale.ROOT));
+                    break;
+                case "snapshot-interval":
+                    snapshotInterval = positive(name, value);
+                    break;
+                case "snapshot-rate":
+                    snapshotRate = Integer.parseInt(value);
+                    if (snapshotRate < 0) {
+                        throw new IllegalArgumentException(name + " must be >= 0");
+                    }
+                    break;
+                case "virtual-time":
+                    virtualTime = Boolean.parseBoolean(value);
+                    break;
+                case "logging":
+                    logging = Boolean.parseBoolean(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + name);
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(
+                    "Invalid value for " + name + ": " + value);
+        }
+    }
+
+    /**
+     * @return The parsed value which must be > 0.
+     */
+    private static int positive(String name, String value) {
+        int result = Integer.parseInt(value);
+        if (result <= 0) {
+            throw new IllegalArgumentException(name + " must be > 0");
+        }
+        return result;
+    }
+
+    /**
+     * @return The passed manager type which must be one of the
+     * {@code supported} types.
+     */
+    private static <T extends Enum<T>> T supported(String name,
+                                                   Collection<T> supported,
+                                                   T type) {
+        if (!supported.contains(type)) {
+            throw new IllegalArgumentException(
+                    name + " " + type.name().toLowerCase(Locale.ROOT)
+                            + " is not implemented, use one of "
+                            + names(supported));
+        }
+        return type;
+    }
+
+    /**
+     * @return A '|' separated list of the passed enum names.
+     */
+    private static String names(Collection<? extends Enum<?>> values) {
+        StringBuilder builder = new StringBuilder();
+        for (Enum<?> value : values) {
+            if (builder.length() > 0) {
+                builder.append('|');
+            }
+            builder.append(value.name().toLowerCase(Locale.ROOT));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,84 @@
+package edu.vandy.simulator.cli;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import edu.vandy.simulator.model.implementation.snapshots.BeingSnapshot;
+import edu.vandy.simulator.model.implementation.snapshots.ModelDelta;
+import edu.vandy.simulator.model.implementation.snapshots.ModelSnapshot;
+import edu.vandy.simulator.model.interfaces.ModelObserver;
+
+/**
+ * A model observer that records the time at which each being
+ * completes all of its gazing iterations. It consumes both
+ * incremental deltas and full snapshots and is called
+ * concurrently from all being threads.
+ */
+class CompletionTracker implements ModelObserver {
+    /**
+     * Completion times (ms since {@link #start}) keyed by being id.
+     */
+    private final Map<Long, Long> mCompletionTimes = new ConcurrentHashMap<>();
+
+    /**
+     * The number of iterations that marks a being as completed.
+     */
+    private final int mIterations;
+
+    /**
+     * The nanoTime at which the simulation was started.
+     */
+    private volatile long mStartNanos;
+
+    /**
+     * @param iterations The number of gazing iterations per being.
+     */
+    CompletionTracker(int iterations) {
+        mIterations = iterations;
+    }
+
+    /**
+     * Marks the start of the simulation run.
+     */
+    void start() {
+        mCompletionTimes.clear();
+        mStartNanos = System.nanoTime();
+    }
+
+    /**
+     * @return The being completion times in ms since {@link #start}.
+     */
+    Collection<Long> getCompletionTimes() {
+        return mCompletionTimes.values();
+    }
+
+    @Override
+    public void onModelChanged(ModelSnapshot snapshot) {
+        record(snapshot.getBeings().values());
+    }
+
+    @Override
+    public void onModelDelta(ModelDelta delta) {
+        record(delta.getBeings().values());
+    }
+
+    /**
+     * Records the completion time of any being snapshot
+     * that shows all iterations have been completed.
+     */
+    private void record(Collection<BeingSnapshot> beings) {
+        if (mStartNanos == 0) {
+            return;
+        }
+
+        for (BeingSnapshot being : beings) {
+            if (being.getCompleted() >= mIterations
+                    && !mCompletionTimes.containsKey(being.getId())) {
+                mCompletionTimes.putIfAbsent(
+                        being.getId(),
+                        (System.nanoTime() - mStartNanos) / 1_000_000);
+            }
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package edu.vandy.simulator.cli;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IntSummaryStatistics;
+import java.util.List;
+import java.util.Locale;
+
+import edu.vandy.simulator.Controller;
+import edu.vandy.simulator.Simulator;
+import edu.vandy.simulator.managers.beings.Being;
+import edu.vandy.simulator.managers.beings.BeingManager;
+import edu.vandy.simulator.managers.beings.rxJava.RxJavaMgr;
+import edu.vandy.simulator.managers.beings.virtualThreads.VirtualThreadsMgr;
+import edu.vandy.simulator.managers.palantiri.spinLockHashMap.QueueLockHashMapMgr;
+import edu.vandy.simulator.utils.VirtualClock;
+
+import static edu.vandy.simulator.model.implementation.components.SimulatorComponent.State.COMPLETED;
+
+/**
+ * Headless command line entry point that runs a single simulation
+ * in performance mode (no artificial gazing or animation delays) on
+ * a plain JVM and prints throughput and per-being completion stats.
+ * With {@code --virtual-time}, all gazing and animation delays are
+ * kept but advance a simulated clock instead of pausing beings.
+ * Run with {@code --help} for the list of supported options.
+ * <p>
+ * The simulator publishes incremental model deltas so that the cost
+ * of each state change does not grow with the number of beings.
+ */
+public class SimulatorCli {
+    /**
+     * Prevent construction of this class.
+     */
+    private SimulatorCli() {
+    }
+
+    /**
+     * Parses the command line, runs the simulation, and exits with
+     * 0 if the simulation completed, 1 if it failed, or 2 if the
+     * command line was invalid.
+     *
+     * @param args Command line arguments (see {@link CliOptions#USAGE}).
+     */
+    public static void main(String[] args) {
+        CliOptions options;
+
+        try {
+            options = CliOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(CliOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+
+        if (options.help) {
+            System.out.println(CliOptions.USAGE);
+            return;
+        }
+
+        System.exit(run(options) ? 0 : 1);
+    }
+
+    /**
+     * Builds and runs a simulation model using the passed options
+     * and prints the results.
+     *
+     * @param options The model parameters.
+     * @return {@code true} if the simulation completed normally.
+     */
+    static boolean run(CliOptions options) {
+        // Disable all simulation delays (or move them onto the
+        // virtual clock) and publish deltas instead of full
+        // snapshots on every state change.
+        Controller.setPerformanceMode(!options.virtualTime);
+        Controller.setVirtualTimeMode(options.virtualTime);
+        Controller.setLogging(options.logging);
+        Controller.setFullSnapshotInterval(options.snapshotInterval);
+        Controller.setSnapshotRate(options.snapshotRate);
+        RxJavaMgr.setSchedulerType(options.rxScheduler);
+        QueueLockHashMapMgr.setLockType(options.lockType);
+
+        CompletionTracker tracker = new CompletionTracker(options.iterations);
+        Simulator simulator = new Simulator(tracker);
+
+        simulator.buildModel(options.beingManager,
+                options.palantiriManager,
+                options.beings,
+                options.palantiri,
+                options.threads,
+                options.iterations);
+
+        if (usesPlatformFallback(options)) {
+            System.err.printf(Locale.US,
+                    "WARNING: virtual threads are not supported by this JVM; "
+                            + "running beings on %d platform threads.%n",
+                    simulator.getBeingManager().getConcurrency());
+        }
+
+        // Run the simulation on this thread; start() blocks
+        // until the simulation has completed or failed.
+        tracker.start();
+        long startNanos = System.nanoTime();
+        simulator.start();
+        long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+
+        printResults(options, simulator, tracker, elapsedMillis);
+
+        return simulator.getState() == COMPLETED;
+    }
+
+    /**
+     * Prints the run configuration, wall time, gazing throughput,
+     * and the distribution of being completion times.
+     */
+    private static void printResults(CliOptions options,
+                                     Simulator simulator,
+                                     CompletionTracker tracker,
+                                     long elapsedMillis) {
+        IntSummaryStatistics completed = simulator.getBeings()
+                .stream()
+                .mapToInt(Being::getCompleted)
+                .summaryStatistics();
+
+        List<Long> times = new ArrayList<>(tracker.getCompletionTimes());
+        Collections.sort(times);
+
+        print("Simulation %s", simulator.getState());
+        if (simulator.getException() != null) {
+            print("  error:              %s", simulator.getException().getMessage());
+        }
+        print("  being manager:      %s", options.beingManager);
+        print("  palantiri manager:  %s", options.palantiriManager);
+        if (options.lockType != null) {
+            print("  lock type:          %s", options.lockType);
+        }
+        print("  beings/palantiri:   %d/%d", options.beings, options.palantiri);
+        if (usesPlatformFallback(options)) {
+            print("  threads:            platform fallback, pool of %d",
+                    simulator.getBeingManager().getConcurrency());
+        } else {
+            print("  threads:            %s",
+                    options.threads > 0 ? String.valueOf(options.threads) : "one per being");
+        }
+        print("  iterations:         %d", options.iterations);
+        print("  wall time:          %d ms", elapsedMillis);
+        if (options.virtualTime) {
+            print("  simulated time:     %d ms", VirtualClock.now());
+        }
+        print("  total gazes:        %d", completed.getSum());
+        print("  gazes/sec:          %.1f",
+                completed.getSum() * 1000.0 / Math.max(elapsedMillis, 1));
+        print("  being iterations:   min %d, max %d, mean %.1f",
+                completed.getMin(), completed.getMax(), completed.getAverage());
+
+        if (times.isEmpty()) {
+            print("  being completion:   no beings completed");
+        } else {
+            print("  being completion:   %d/%d beings, min %d ms, "
+                            + "median %d ms, p99 %d ms, max %d ms",
+                    times.size(),
+                    options.beings,
+                    times.get(0),
+                    percentile(times, 0.50),
+                    percentile(times, 0.99),
+                    times.get(times.size() - 1));
+        }
+    }
+
+    /**
+     * @return {@code true} if virtual threads were requested but the
+     * running JVM does not support them, so the beings run on a
+     * bounded pool of platform threads instead.
+     */
+    private static boolean usesPlatformFallback(CliOptions options) {
+        return options.beingManager == BeingManager.Factory.Type.VIRTUAL_THREADS
+                && !VirtualThreadsMgr.isVirtualThreadsSupported();
+    }
+
+    /**
+     * @return The nearest-rank percentile of a sorted list.
+     */
+    private static long percentile(List<Long> sorted, double percentile) {
+        int rank = (int) Math.ceil(percentile * sorted.size());
+        return sorted.get(Math.max(rank - 1, 0));
+    }
+
+    /**
+     * Prints a formatted line to stdout.
+     */
+    private static void print(String format, Object... args) {
+        System.out.println(String.format(Locale.ROOT, format, args));
+    }
+}
@@ -3,10 +3,13 @@ package edu.vandy.simulator.managers.beings;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import edu.vandy.simulator.Controller;
 import edu.vandy.simulator.managers.palantiri.Palantir;
 import edu.vandy.simulator.model.implementation.components.BeingComponent;
+import edu.vandy.simulator.utils.VirtualClock;
 
 /**
  * This class runs the gazing iteration loop for a single Being
@@ -43,6 +46,12 @@ public abstract class Being
      */
     public int mCompleted;
 
+    /**
+     * The manager's running being count for the run in which this
+     * being last started.
+     */
+    private volatile AtomicInteger mRunningBeings;
+
     /**
      * Constructor initializes the field.
      *
@@ -127,6 +136,15 @@ public abstract class Being
         return mManager.acquirePalantir(this);
     }
 
+    /**
+     * Helper method that can be called by base classes to acquire
+     * a Palantir without blocking the calling thread. It simply
+     * forwards the request to the BeingManager.
+     */
+    public CompletableFuture<Palantir> acquirePalantirAsync() {
+        return mManager.acquirePalantirAsync(this);
+    }
+
     /**
      * Helper method that should be called by base classes
      * to release a Palantir. The completed iterations count
@@ -188,6 +206,7 @@ public abstract class Being
                         "is already running.");
             }
             mThread = Thread.currentThread();
+            runningChanged(true);
             //Controller.log("setRunning: " + this + " started.");
         } else {
             // Clear the mThread field. This should be
@@ -197,11 +216,46 @@ public abstract class Being
                 warn("Being: setRunning(false) called but " +
                         "the being thread is not alive.");
             }
+            boolean wasRunning = mThread != null;
             mThread = null;
+            if (wasRunning) {
+                runningChanged(false);
+            }
             //Controller.log("setRunning: " + this + " completed.");
         }
     }
 
+    /**
+     * Reports that this being has started or stopped running to the
+     * virtual clock and to the manager, which wakes any thread that
+     * is waiting for the beings to shutdown once the last one stops.
+     * Subclasses that override {@link #setRunning} must call this
+     * method exactly once for each change.
+     *
+     * @param running {@code true} if the being has started,
+     *                {@code false} if it has stopped.
+     */
+    protected final void runningChanged(boolean running) {
+        if (running) {
+            mRunningBeings = mManager.beingStarted();
+            if (Controller.isVirtualTimeMode()) {
+                VirtualClock.beingStarted();
+            }
+        } else {
+            // Ignore a stop that doesn't match a start.
+            AtomicInteger runningBeings = mRunningBeings;
+            if (runningBeings == null) {
+                return;
+            }
+            mRunningBeings = null;
+
+            if (Controller.isVirtualTimeMode()) {
+                VirtualClock.beingFinished();
+            }
+            mManager.beingStopped(runningBeings);
+        }
+    }
+
     /**
      * Routes all non-fatal warning messages up the chain.
      *
@@ -220,9 +274,12 @@ public abstract class Being
      * is no longer alive, {@code false} if the thread is still running.
      */
     public boolean interruptNow() {
-        if (mThread != null && mThread.isAlive()) {
-            mThread.interrupt();
-            return !mThread.isAlive();
+        // Read the field once since the being may stop, and clear
+        // it, at any time.
+        Thread thread = mThread;
+        if (thread != null && thread.isAlive()) {
+            thread.interrupt();
+            return !thread.isAlive();
         } else {
             return true;
         }
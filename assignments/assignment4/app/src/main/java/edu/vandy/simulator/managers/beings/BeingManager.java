@@ -6,6 +6,11 @@ import org.jetbrains.annotations.Nullable;
 import java.lang.reflect.Constructor;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Stream;
 
 import edu.vandy.simulator.Simulator;
@@ -37,7 +42,7 @@ public abstract class BeingManager<T extends Being>
     /**
      * The maximum time to wait when asking beings to shutdown.
      */
-    private int MAX_WAIT = 5000;
+    protected static final int MAX_WAIT = 5000;
     /**
      * The number of threads to use in the simulation.
      */
@@ -54,6 +59,24 @@ public abstract class BeingManager<T extends Being>
     @NotNull
     public List<T> mBeings = new ArrayList<>();
 
+    /**
+     * The number of beings that are currently running, which each
+     * being updates as it starts and stops. A new count is used for
+     * each run so that a being that only stops after {@link #reset}
+     * updates the count of its own run rather than the next one.
+     */
+    private volatile AtomicInteger mRunningBeings = new AtomicInteger();
+
+    /**
+     * Lock used with the condition below.
+     */
+    private final ReentrantLock mRunningLock = new ReentrantLock();
+
+    /**
+     * Signalled by the last running being when it stops.
+     */
+    private final Condition mNoneRunning = mRunningLock.newCondition();
+
     /**
      * Zero parameter constructor required for Factory creation.
      */
@@ -136,6 +159,19 @@ public abstract class BeingManager<T extends Being>
         return mThreadCount > 0 ? mThreadCount : getBeingCount();
     }
 
+    /**
+     * Returns the number of beings that this manager runs at the same
+     * time, which the virtual clock uses to reserve running slots for
+     * beings that have yet to start. Managers that limit concurrency
+     * by some other means than the thread count should override this
+     * method.
+     *
+     * @return The number of beings run concurrently.
+     */
+    public int getConcurrency() {
+        return Math.min(getThreadCount(), getBeingCount());
+    }
+
     /**
      * @return The list of beings in this model.
      */
@@ -241,9 +277,9 @@ public abstract class BeingManager<T extends Being>
      * shutdownNow method that simply sets a cancelled flag that they
      * should be monitoring at a relatively fine-grained interval.  If
      * interrupt is {@code true}, then each being is forcefully
-     * interrupted. In either case, this method will wat for MAX_WAIT
-     * milliseconds to ensure that all the beings were properly
-     * shutdown.
+     * interrupted. In either case, this method will wait up to
+     * MAX_WAIT milliseconds for the last running being to signal that
+     * it has stopped.
      *
      * @param interrupt if {@code false} beings are only requested to
      *                  shutdown and if {@code true} beings are shutdown
@@ -253,7 +289,7 @@ public abstract class BeingManager<T extends Being>
      */
     protected boolean shutdownBeings(boolean interrupt) {
         // Start off with the the number of running beings.
-        if (getRunningBeingCount() == 0) {
+        if (mRunningBeings.get() == 0) {
             // Nothing to do if there are no beings running.
             return true;
         }
@@ -278,17 +314,11 @@ public abstract class BeingManager<T extends Being>
                 });
             }
 
-            // Now wait for MAX_WAIT milliseconds for all threads
-            // to shutdown.
-            int interval = 50;
-            int waited = 0;
-            while (getRunningBeingCount() > 0 && waited < MAX_WAIT) {
-                waited += interval;
-                Thread.sleep(interval);
-            }
-
-            // Return true if all beings have shutdown and false if not.
-            return getRunningBeingCount() == 0;
+            // Now wait for up to MAX_WAIT milliseconds for the last
+            // running being to signal that it has stopped, and
+            // return true if all beings have shutdown and false if
+            // not.
+            return awaitBeingsStopped(MAX_WAIT);
         } catch (Exception e) {
             log("shutdownBeings encountered exception: " + e);
             e.printStackTrace();
@@ -310,8 +340,9 @@ public abstract class BeingManager<T extends Being>
      * state to reset.
      */
     public void reset() {
-        // Just reset beings (no fields to reset).
+        // Reset beings and start a new running being count.
         mBeings.forEach(Being::reset);
+        mRunningBeings = new AtomicInteger();
     }
 
     /**
@@ -356,6 +387,19 @@ public abstract class BeingManager<T extends Being>
         return mSimulator.acquirePalantir(being);
     }
 
+    /**
+     * Called by a Being to acquire a Palantir resource without
+     * blocking. The request is routed to the simulator which will,
+     * in turn, route the request to the PalantiriManager.
+     *
+     * @param being The Being.
+     * @return A future that completes with the next available
+     * Palantir.
+     */
+    public CompletableFuture<Palantir> acquirePalantirAsync(Being being) {
+        return mSimulator.acquirePalantirAsync(being);
+    }
+
     /**
      * Called by a Being to release a previously acquired Palantir
      * resource. The request is routed to the simulator which will,
@@ -386,6 +430,62 @@ public abstract class BeingManager<T extends Being>
                 .count();
     }
 
+    /**
+     * Called by a being when it starts running.
+     *
+     * @return The running being count of the current run, which the
+     * being passes to {@link #beingStopped} when it stops.
+     */
+    final AtomicInteger beingStarted() {
+        AtomicInteger runningBeings = mRunningBeings;
+        runningBeings.incrementAndGet();
+        return runningBeings;
+    }
+
+    /**
+     * Called by a being when it stops running. The last being to
+     * stop wakes any thread that is waiting for all beings to stop,
+     * so stopping costs each being a constant amount of work no
+     * matter how many beings there are.
+     *
+     * @param runningBeings The count returned by {@link
+     *                      #beingStarted} when the being started.
+     */
+    final void beingStopped(AtomicInteger runningBeings) {
+        if (runningBeings.decrementAndGet() == 0) {
+            mRunningLock.lock();
+            try {
+                mNoneRunning.signalAll();
+            } finally {
+                mRunningLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Blocks until no beings are running or the timeout elapses.
+     *
+     * @param timeout The maximum time to wait in milliseconds.
+     * @return {@code true} if no beings are running and {@code false}
+     * if the timeout elapsed first.
+     */
+    protected boolean awaitBeingsStopped(long timeout) throws InterruptedException {
+        long nanos = TimeUnit.MILLISECONDS.toNanos(timeout);
+
+        mRunningLock.lock();
+        try {
+            while (mRunningBeings.get() > 0) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = mNoneRunning.awaitNanos(nanos);
+            }
+            return true;
+        } finally {
+            mRunningLock.unlock();
+        }
+    }
+
     /**
      * Routes all non-fatal warning messages up the chain.
      *
@@ -448,7 +548,9 @@ public abstract class BeingManager<T extends Being>
             ASYNC_TASK("asyncTask.AsyncTaskMgr"),
             PARALLEL_STREAMS("parallelStreams.ParallelStreamsMgr"),
             COMPLETABLE_FUTURES("completableFutures.CompletableFuturesMgr"),
-            STRUCTURED_CONCURRENCY("structuredConcurrency.CoroutineMgr");
+            RX_JAVA("rxJava.RxJavaMgr"),
+            STRUCTURED_CONCURRENCY("structuredConcurrency.CoroutineMgr"),
+            VIRTUAL_THREADS("virtualThreads.VirtualThreadsMgr");
 
             public final String className;
 
@@ -0,0 +1,208 @@
+package edu.vandy.simulator.managers.beings.completableFutures;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import edu.vandy.simulator.Controller;
+import edu.vandy.simulator.managers.beings.Being;
+import edu.vandy.simulator.managers.beings.BeingManager;
+import edu.vandy.simulator.managers.palantiri.Palantir;
+
+/**
+ * This class implements the gazing logic of a Being as a chain of
+ * CompletableFutures rather than a loop running on a thread of its
+ * own. Each iteration acquires a palantir, gazes into it, and then
+ * releases it, and neither waiting for a palantir nor the state
+ * delays while gazing occupy a thread. A being is therefore
+ * considered to be running from the start of its first iteration
+ * until the future returned by {@link #runGazingSimulationAsync}
+ * completes.
+ */
+class AsyncBeing
+        extends Being {
+    /**
+     * True while the being's gazing chain is running.
+     */
+    private volatile boolean mActive;
+
+    /**
+     * The pending palantir request so that a shutdown
+     * can withdraw it.
+     */
+    private volatile CompletableFuture<Palantir> mPendingAcquire;
+
+    /**
+     * Constructor initializes the field.
+     *
+     * @param manager The controlling BeingManager instance.
+     */
+    AsyncBeing(BeingManager manager) {
+        // Call super constructor passing the manager.
+        super(manager);
+    }
+
+    /**
+     * Asynchronously gaze at a palantir the designated number of
+     * times. This is the asynchronous counterpart of {@link
+     * #runGazingSimulation}.
+     *
+     * @param executor The executor that runs each step.
+     * @return A future that completes when the being has finished
+     * all its iterations or has been cancelled.
+     */
+    CompletableFuture<Void> runGazingSimulationAsync(Executor executor) {
+        if (isRunning()) {
+            error("Should not be possible that 'isRunning' "
+                    + "is true since it is cleared on completion");
+        }
+
+        setRunning(true);
+
+        // Keep track of how many iterations we complete.
+        mCompleted = 0;
+
+        CompletableFuture<Void> result = new CompletableFuture<>();
+
+        // Turn a synchronous failure of the first step into a failed
+        // chain so that the being is still marked as stopped below.
+        CompletableFuture<Void> chain;
+        try {
+            chain = gazeRemaining(executor);
+        } catch (RuntimeException e) {
+            chain = new CompletableFuture<>();
+            chain.completeExceptionally(e);
+        }
+
+        chain.whenComplete((v, throwable) -> {
+            Throwable cause = throwable instanceof CompletionException
+                    ? throwable.getCause()
+                    : throwable;
+
+            if (cause instanceof CancellationException
+                    || (cause instanceof RejectedExecutionException && isCancelled())) {
+                // Swallow cancellation but record the event.
+                warn(this + " has been cancelled!");
+                cause = null;
+            } else if (cause == null && !isCancelled()) {
+                Controller.log(this + " completed normally.");
+            }
+
+            setRunning(false);
+
+            if (cause != null) {
+                result.completeExceptionally(cause);
+            } else {
+                result.complete(null);
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * Chains the remaining gazing iterations.
+     *
+     * @param executor The executor that runs each step.
+     * @return A future that completes after the last iteration.
+     */
+    private CompletableFuture<Void> gazeRemaining(Executor executor) {
+        if (isCancelled() || mCompleted == getGazingIterations()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        // Start each iteration on the executor so that a long run
+        // of immediately completed iterations can't grow the stack.
+        return acquirePalantirAndGazeAsync(executor)
+                .thenComposeAsync(v -> gazeRemaining(executor), executor);
+    }
+
+    /**
+     * Perform a single gazing operation without blocking.
+     *
+     * @param executor The executor that runs each step.
+     * @return A future that completes once the palantir has been
+     * released.
+     */
+    private CompletableFuture<Void> acquirePalantirAndGazeAsync(Executor executor) {
+        // Ask for a palantir, which is handed to this being when
+        // another being releases one if none is available.
+        CompletableFuture<Palantir> acquire = acquirePalantirAsync();
+        mPendingAcquire = acquire;
+
+        // Withdraw the request if shutdownNow was called before
+        // it was recorded.
+        if (isCancelled()) {
+            acquire.cancel(false);
+        }
+
+        return acquire.thenComposeAsync(palantir -> {
+            mPendingAcquire = null;
+
+            // A null palantir indicates a concurrency error
+            // in the palantiri manager implementation.
+            if (palantir == null) {
+                error("Received a null palantir from the palantiri manager.");
+            }
+
+            // Gaze at the palantir for a random period of time and
+            // then release it for other beings to use, even if
+            // gazing failed, in which case the failure is passed on.
+            return palantir.gazeAsync(this, executor)
+                    .whenComplete((v, throwable) -> releasePalantir(palantir));
+        }, executor);
+    }
+
+    /**
+     * Records whether the being's gazing chain is running. Unlike the
+     * base class, this does not bind the being to the calling thread
+     * since each step may run on a different pool thread.
+     *
+     * @param running {@code true} if running, {@code false}
+     *                if not running.
+     */
+    @Override
+    public void setRunning(boolean running) {
+        mActive = running;
+        runningChanged(running);
+    }
+
+    /**
+     * @return {@code true} if the being's gazing chain is running.
+     */
+    @Override
+    public boolean isRunning() {
+        return mActive;
+    }
+
+    /**
+     * Cancels the being and withdraws any pending palantir request
+     * so that the gazing chain completes promptly.
+     */
+    @Override
+    public void shutdownNow() {
+        super.shutdownNow();
+
+        CompletableFuture<Palantir> acquire = mPendingAcquire;
+        if (acquire != null) {
+            acquire.cancel(false);
+        }
+    }
+
+    /**
+     * There is no being thread to interrupt, so this withdraws any
+     * pending palantir request instead.
+     *
+     * @return {@code true} if the being is no longer running.
+     */
+    @Override
+    public boolean interruptNow() {
+        CompletableFuture<Palantir> acquire = mPendingAcquire;
+        if (acquire != null) {
+            acquire.cancel(false);
+        }
+        return !isRunning();
+    }
+}
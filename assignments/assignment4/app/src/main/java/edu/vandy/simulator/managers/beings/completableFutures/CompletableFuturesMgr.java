@@ -0,0 +1,125 @@
+package edu.vandy.simulator.managers.beings.completableFutures;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import edu.vandy.simulator.Controller;
+import edu.vandy.simulator.managers.beings.BeingManager;
+import edu.vandy.simulator.managers.palantiri.PalantiriManager;
+import edu.vandy.simulator.utils.StreamsUtils;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * This BeingManager implementation runs each being as an
+ * asynchronous chain of CompletableFutures (acquire, gaze, release)
+ * on a small fixed thread pool. Beings waiting for a palantir or
+ * pausing between states don't occupy a pool thread, so a handful of
+ * threads can drive tens of thousands of concurrent beings.
+ * <p>
+ * This manager requires a palantiri manager that supports
+ * asynchronous acquisition (see {@link
+ * edu.vandy.simulator.managers.palantiri.PalantiriManager#supportsAsyncAcquire}).
+ */
+public class CompletableFuturesMgr
+        extends BeingManager<AsyncBeing> {
+    /**
+     * Used for Android debugging.
+     */
+    private final static String TAG =
+            CompletableFuturesMgr.class.getName();
+
+    /**
+     * The executor that runs every being's gazing steps.
+     */
+    private ExecutorService mExecutor;
+
+    /**
+     * Default constructor.
+     */
+    public CompletableFuturesMgr() {
+    }
+
+    /**
+     * Abstract method that BeingManagers implement to return a new
+     * AsyncBeing instance.
+     *
+     * @return A new typed Being instance.
+     */
+    @Override
+    public AsyncBeing newBeing() {
+        return new AsyncBeing(this);
+    }
+
+    /**
+     * This entry point method is called by the Simulator framework to
+     * start the being gazing simulation. It blocks until all beings
+     * have completed or the simulation has been shutdown.
+     **/
+    @Override
+    public void runSimulation() {
+        // Fail before any being starts rather than part way through
+        // starting them. This throws rather than calling error() since
+        // a shutdown from this thread would wait for itself to end.
+        PalantiriManager palantiriManager = mSimulator.getPalantirManager();
+        if (!palantiriManager.supportsAsyncAcquire()) {
+            throw new IllegalStateException(
+                    TAG + ": " + palantiriManager.getClass().getSimpleName()
+                            + " does not support asynchronous acquisition.");
+        }
+
+        mExecutor = Executors.newFixedThreadPool(getPoolSize());
+
+        try {
+            // Start every being's gazing chain.
+            List<CompletableFuture<Void>> futures = getBeings()
+                    .stream()
+                    .map(being -> being.runGazingSimulationAsync(mExecutor))
+                    .collect(toList());
+
+            // Wait for all beings to finish gazing.
+            StreamsUtils.joinAll(futures).join();
+
+            Controller.log(TAG + ": runSimulation: all beings completed.");
+        } catch (CompletionException e) {
+            // Let start() record the failure (see above).
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            mExecutor.shutdown();
+        }
+    }
+
+    /**
+     * @return The number of pool threads, which is the requested
+     * thread count or, when none is requested, the number of
+     * processors (rather than one thread per being).
+     */
+    private int getPoolSize() {
+        return mThreadCount > 0
+                ? mThreadCount
+                : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Called to terminate the executor. All beings will have already
+     * been asked to stop by the base class before this method is
+     * called. Queued steps are allowed to run so that every being's
+     * chain completes, but no new steps are accepted, which ends any
+     * remaining chains with a RejectedExecutionException.
+     */
+    @Override
+    public void shutdownNow() {
+        Controller.log(TAG + ": shutdownNow: entered");
+
+        if (mExecutor != null) {
+            mExecutor.shutdown();
+        }
+
+        Controller.log(TAG + ": shutdownNow: exited with "
+                + getRunningBeingCount() + "/"
+                + getBeingCount() + " running beings.");
+    }
+}
@@ -0,0 +1,56 @@
+package edu.vandy.simulator.managers.beings.parallelStreams;
+
+import edu.vandy.simulator.managers.beings.Being;
+import edu.vandy.simulator.managers.beings.BeingManager;
+import edu.vandy.simulator.managers.palantiri.Palantir;
+import edu.vandy.simulator.utils.BlockingTask;
+
+/**
+ * This class implements the gazing logic of a Being that runs as an
+ * element of a parallel stream on a fork/join pool. Every call that
+ * can block (acquiring a palantir and gazing into it) is run in a
+ * managed block so that the pool can add a compensating thread to
+ * keep running other beings in the meantime.
+ */
+class ParallelBeing
+        extends Being {
+    /**
+     * Constructor initializes the field.
+     *
+     * @param manager The controlling BeingManager instance.
+     */
+    ParallelBeing(BeingManager manager) {
+        // Call super constructor passing the manager.
+        super(manager);
+    }
+
+    /**
+     * Run the loop that performs the Being gazing logic.
+     */
+    void run() {
+        // Gaze at a palantir the designated number of times.
+        runGazingSimulation(getGazingIterations());
+    }
+
+    /**
+     * Perform a single gazing operation.
+     */
+    @Override
+    protected void acquirePalantirAndGaze() {
+        // Get a palantir from the BeingManager, blocking in a managed
+        // block until one is available.
+        Palantir palantir = BlockingTask.callInManagedBlock(this::acquirePalantir);
+
+        // A null palantir indicates a concurrency error
+        // in the palantiri manager implementation.
+        if (palantir == null) {
+            error("Received a null palantir from the palantiri manager.");
+        }
+
+        // Gaze at the palantir for a random period of time.
+        BlockingTask.runInManagedBlock(() -> palantir.gaze(this));
+
+        // Release the palantir for other beings to use.
+        releasePalantir(palantir);
+    }
+}
@@ -0,0 +1,184 @@
+package edu.vandy.simulator.managers.beings.parallelStreams;
+
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.StreamSupport;
+
+import edu.vandy.simulator.Controller;
+import edu.vandy.simulator.managers.beings.BeingManager;
+
+/**
+ * This BeingManager implementation runs the beings as the elements
+ * of a parallel stream on a dedicated ForkJoinPool rather than the
+ * common pool. Beings block in managed blocks (see {@link
+ * ParallelBeing}), so whenever a being waits for a palantir or gazes
+ * into one the pool adds a compensating thread to run another being
+ * instead of stalling. The pool starts with only a few threads and
+ * grows with the number of beings that are blocked at once.
+ */
+public class ParallelStreamsMgr
+        extends BeingManager<ParallelBeing> {
+    /**
+     * Used for Android debugging.
+     */
+    private final static String TAG =
+            ParallelStreamsMgr.class.getName();
+
+    /**
+     * The fork/join pool that runs the parallel stream.
+     */
+    private ForkJoinPool mPool;
+
+    /**
+     * Default constructor.
+     */
+    public ParallelStreamsMgr() {
+    }
+
+    /**
+     * Abstract method that BeingManagers implement to return a new
+     * ParallelBeing instance.
+     *
+     * @return A new typed Being instance.
+     */
+    @Override
+    public ParallelBeing newBeing() {
+        return new ParallelBeing(this);
+    }
+
+    /**
+     * This entry point method is called by the Simulator framework to
+     * start the being gazing simulation. It blocks until all beings
+     * have completed or the simulation has been shutdown.
+     **/
+    @Override
+    public void runSimulation() {
+        mPool = new ForkJoinPool(getParallelism());
+
+        try {
+            // Running the stream from a task in the dedicated pool
+            // makes the stream use that pool instead of the common
+            // pool.
+            mPool.submit(() ->
+                    StreamSupport
+                            .stream(new BeingSpliterator(getBeings(), 0, getBeingCount()), true)
+                            .forEach(ParallelBeing::run))
+                    .get();
+
+            Controller.log(TAG + ": runSimulation: all beings completed.");
+        } catch (ExecutionException e) {
+            // A failed stream may leave other beings running, so let
+            // them finish first. Then throw rather than call error()
+            // since a shutdown from this thread would wait for itself
+            // to end. start() records the failure.
+            mPool.awaitQuiescence(MAX_WAIT, TimeUnit.MILLISECONDS);
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } finally {
+            mPool.shutdown();
+        }
+    }
+
+    /**
+     * @return The target parallelism of the pool, which is the
+     * requested thread count or, when none is requested, the number
+     * of processors. Compensating threads are added on top of these
+     * while beings are blocked.
+     */
+    private int getParallelism() {
+        return mThreadCount > 0
+                ? mThreadCount
+                : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Called to terminate the pool. All beings will have already
+     * been asked to stop by the base class before this method is
+     * called, so any remaining beings are interrupted.
+     */
+    @Override
+    public void shutdownNow() {
+        Controller.log(TAG + ": shutdownNow: entered");
+
+        if (mPool != null) {
+            mPool.shutdownNow();
+        }
+
+        Controller.log(TAG + ": shutdownNow: exited with "
+                + getRunningBeingCount() + "/"
+                + getBeingCount() + " running beings.");
+    }
+
+    /**
+     * A spliterator over a range of beings that splits all the way
+     * down to a single being per stream task. A parallel stream
+     * normally stops splitting at a few leaf tasks per common pool
+     * thread and runs the elements of each leaf one after another,
+     * which would only let a handful of beings run at once (and
+     * would stall a virtual time run while the later beings of a
+     * leaf wait for an earlier one). To prevent that, a range of
+     * more than one being reports an unknown size.
+     */
+    private static class BeingSpliterator
+            implements Spliterator<ParallelBeing> {
+        /**
+         * The beings.
+         */
+        private final List<ParallelBeing> mBeings;
+
+        /**
+         * The index of the next being to traverse.
+         */
+        private int mOrigin;
+
+        /**
+         * One past the index of the last being in the range.
+         */
+        private final int mFence;
+
+        /**
+         * Constructor initializes the fields.
+         */
+        BeingSpliterator(List<ParallelBeing> beings, int origin, int fence) {
+            mBeings = beings;
+            mOrigin = origin;
+            mFence = fence;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super ParallelBeing> action) {
+            if (mOrigin < mFence) {
+                action.accept(mBeings.get(mOrigin++));
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public Spliterator<ParallelBeing> trySplit() {
+            int mid = (mOrigin + mFence) >>> 1;
+            if (mid <= mOrigin) {
+                return null;
+            }
+            BeingSpliterator prefix = new BeingSpliterator(mBeings, mOrigin, mid);
+            mOrigin = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return mFence - mOrigin > 1 ? Long.MAX_VALUE : mFence - mOrigin;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL | IMMUTABLE;
+        }
+    }
+}
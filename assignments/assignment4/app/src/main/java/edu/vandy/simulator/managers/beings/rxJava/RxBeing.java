@@ -0,0 +1,164 @@
+package edu.vandy.simulator.managers.beings.rxJava;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import edu.vandy.simulator.Controller;
+import edu.vandy.simulator.managers.beings.Being;
+import edu.vandy.simulator.managers.beings.BeingManager;
+import edu.vandy.simulator.managers.palantiri.Palantir;
+import io.reactivex.Completable;
+import io.reactivex.Flowable;
+import io.reactivex.Scheduler;
+
+/**
+ * This class implements the gazing logic of a Being as an RxJava
+ * Completable. The gazing iterations are concatenated so that they
+ * run one after another, and the state delays while gazing are
+ * scheduled rather than slept, so a being only occupies a scheduler
+ * thread while it is changing state.
+ */
+class RxBeing
+        extends Being {
+    /**
+     * True while the being's gazing iterations are running.
+     */
+    private final AtomicBoolean mActive = new AtomicBoolean();
+
+    /**
+     * Constructor initializes the field.
+     *
+     * @param manager The controlling BeingManager instance.
+     */
+    RxBeing(BeingManager manager) {
+        // Call super constructor passing the manager.
+        super(manager);
+    }
+
+    /**
+     * Returns a Completable that gazes at a palantir the designated
+     * number of times when it is subscribed to. This is the reactive
+     * counterpart of {@link #runGazingSimulation}.
+     *
+     * @param scheduler The scheduler that runs each step.
+     * @return A Completable that completes when the being has
+     * finished all its iterations or has been cancelled.
+     */
+    Completable gazingSimulation(Scheduler scheduler) {
+        Executor executor = scheduler::scheduleDirect;
+
+        return Flowable
+                .range(0, getGazingIterations())
+                .concatMapCompletable(i -> acquirePalantirAndGaze(executor))
+                .doOnSubscribe(subscription -> {
+                    setRunning(true);
+
+                    // Keep track of how many iterations we complete.
+                    mCompleted = 0;
+                })
+                .doOnComplete(() -> {
+                    if (!isCancelled()) {
+                        Controller.log(this + " completed normally.");
+                    }
+                })
+                // Stop running before the completion reaches the
+                // manager, which then subscribes to the next being.
+                .doOnTerminate(() -> setRunning(false))
+                .doOnDispose(() -> setRunning(false))
+                .subscribeOn(scheduler);
+    }
+
+    /**
+     * Returns a Completable that performs a single gazing operation
+     * when it is subscribed to.
+     *
+     * @param executor The executor that runs the steps after each
+     *                 state delay.
+     * @return A Completable that completes once the palantir has
+     * been released.
+     */
+    private Completable acquirePalantirAndGaze(Executor executor) {
+        return Completable.defer(() -> {
+            // Skip the remaining iterations once cancelled.
+            if (isCancelled()) {
+                return Completable.complete();
+            }
+
+            // Get a palantir from the BeingManager. The manager
+            // never runs more beings than there are palantiri, so
+            // this call won't block for long.
+            Palantir palantir = acquirePalantir();
+
+            // A null palantir indicates a concurrency error
+            // in the palantiri manager implementation.
+            if (palantir == null) {
+                error("Received a null palantir from the palantiri manager.");
+            }
+
+            // Gaze at the palantir for a random period of time and
+            // then release it for other beings to use. The palantir
+            // is released once gazing ends, even if gazing failed or
+            // the subscriber has been disposed, and any failure is
+            // passed on.
+            return Completable
+                    .create(emitter -> palantir.gazeAsync(this, executor)
+                            .whenComplete((v, throwable) -> {
+                                Throwable error = throwable;
+                                try {
+                                    releasePalantir(palantir);
+                                } catch (RuntimeException e) {
+                                    if (error == null) {
+                                        error = e;
+                                    }
+                                }
+
+                                // A disposed subscriber no longer wants
+                                // the failure, so don't report it as
+                                // undeliverable.
+                                if (error != null) {
+                                    emitter.tryOnError(error);
+                                } else {
+                                    emitter.onComplete();
+                                }
+                            }));
+        });
+    }
+
+    /**
+     * Records whether the being's gazing iterations are running.
+     * Unlike the base class, this does not bind the being to the
+     * calling thread since each step may run on a different
+     * scheduler thread. Repeated calls with the same value are
+     * ignored since a being can be both terminated and disposed.
+     *
+     * @param running {@code true} if running, {@code false}
+     *                if not running.
+     */
+    @Override
+    public void setRunning(boolean running) {
+        if (mActive.compareAndSet(!running, running)) {
+            runningChanged(running);
+        }
+    }
+
+    /**
+     * @return {@code true} if the being's gazing iterations
+     * are running.
+     */
+    @Override
+    public boolean isRunning() {
+        return mActive.get();
+    }
+
+    /**
+     * There is no being thread to interrupt and a being never waits
+     * long for a palantir, so this only reports whether the being
+     * is still running.
+     *
+     * @return {@code true} if the being is no longer running.
+     */
+    @Override
+    public boolean interruptNow() {
+        return !isRunning();
+    }
+}
@@ -0,0 +1,172 @@
+package edu.vandy.simulator.managers.beings.rxJava;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import edu.vandy.simulator.Controller;
+import edu.vandy.simulator.managers.beings.BeingManager;
+import io.reactivex.Flowable;
+import io.reactivex.Scheduler;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * This BeingManager implementation runs the beings as an RxJava
+ * Flowable whose gazing simulations are flatMap'd with a maximum
+ * concurrency equal to the number of palantiri. Backpressure on the
+ * Flowable, rather than threads blocked in a palantiri manager
+ * acquire call, limits how many beings compete for the palantiri,
+ * and since the state delays are scheduled rather than slept the
+ * beings share a small number of scheduler threads.
+ * <p>
+ * The scheduler is selected with {@link #setSchedulerType}.
+ */
+public class RxJavaMgr
+        extends BeingManager<RxBeing> {
+    /**
+     * Used for Android debugging.
+     */
+    private final static String TAG =
+            RxJavaMgr.class.getName();
+
+    /**
+     * The scheduler type used by subsequent simulation runs.
+     */
+    private static volatile SchedulerType sSchedulerType =
+            SchedulerType.COMPUTATION;
+
+    /**
+     * The executor backing an EXECUTOR scheduler (null otherwise).
+     */
+    private ExecutorService mExecutor;
+
+    /**
+     * Default constructor.
+     */
+    public RxJavaMgr() {
+    }
+
+    /**
+     * Sets the scheduler type used by subsequent simulation runs.
+     *
+     * @param type The scheduler type or null for the default.
+     */
+    public static void setSchedulerType(SchedulerType type) {
+        sSchedulerType = type != null ? type : SchedulerType.COMPUTATION;
+    }
+
+    /**
+     * @return The scheduler type used by simulation runs.
+     */
+    public static SchedulerType getSchedulerType() {
+        return sSchedulerType;
+    }
+
+    /**
+     * Abstract method that BeingManagers implement to return a new
+     * RxBeing instance.
+     *
+     * @return A new typed Being instance.
+     */
+    @Override
+    public RxBeing newBeing() {
+        return new RxBeing(this);
+    }
+
+    /**
+     * At most one being per palantir runs at a time.
+     *
+     * @return The number of beings run concurrently.
+     */
+    @Override
+    public int getConcurrency() {
+        return Math.min(mSimulator.getPalantirManager().getPalantirCount(),
+                getBeingCount());
+    }
+
+    /**
+     * This entry point method is called by the Simulator framework to
+     * start the being gazing simulation. It blocks until all beings
+     * have completed or the simulation has been shutdown.
+     **/
+    @Override
+    public void runSimulation() {
+        Scheduler scheduler = createScheduler();
+
+        try {
+            Flowable
+                    .fromIterable(getBeings())
+                    .flatMapCompletable(being -> being.gazingSimulation(scheduler),
+                            false,
+                            getConcurrency())
+                    .blockingAwait();
+
+            Controller.log(TAG + ": runSimulation: all beings completed.");
+        } finally {
+            if (mExecutor != null) {
+                mExecutor.shutdown();
+                mExecutor = null;
+            }
+        }
+    }
+
+    /**
+     * @return The scheduler of the selected type.
+     */
+    private Scheduler createScheduler() {
+        switch (sSchedulerType) {
+            case IO:
+                return Schedulers.io();
+            case SINGLE:
+                return Schedulers.single();
+            case NEW_THREAD:
+                return Schedulers.newThread();
+            case EXECUTOR:
+                mExecutor = Executors.newFixedThreadPool(
+                        mThreadCount > 0
+                                ? mThreadCount
+                                : Runtime.getRuntime().availableProcessors());
+                return Schedulers.from(mExecutor);
+            default:
+                return Schedulers.computation();
+        }
+    }
+
+    /**
+     * Called after all beings have been asked to stop. Cancelled
+     * beings skip their remaining iterations, so the Flowable
+     * completes on its own and there is nothing to release here.
+     */
+    @Override
+    public void shutdownNow() {
+        Controller.log(TAG + ": shutdownNow: exited with "
+                + getRunningBeingCount() + "/"
+                + getBeingCount() + " running beings.");
+    }
+
+    /**
+     * The schedulers that can run the beings.
+     */
+    public enum SchedulerType {
+        /**
+         * The shared fixed pool with one thread per processor.
+         */
+        COMPUTATION,
+        /**
+         * The shared pool that grows on demand.
+         */
+        IO,
+        /**
+         * The shared single thread.
+         */
+        SINGLE,
+        /**
+         * A new thread for each being.
+         */
+        NEW_THREAD,
+        /**
+         * A fixed pool of the requested number of threads (or one
+         * per processor) owned by the manager.
+         */
+        EXECUTOR
+    }
+}
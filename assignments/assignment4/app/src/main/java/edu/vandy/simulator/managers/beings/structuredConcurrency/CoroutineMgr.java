@@ -0,0 +1,122 @@
+package edu.vandy.simulator.managers.beings.structuredConcurrency;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+
+import edu.vandy.simulator.Controller;
+import edu.vandy.simulator.managers.beings.BeingManager;
+
+/**
+ * This BeingManager implementation runs each simulation in its own
+ * {@link SimulationScope}, in which every being is a child task. The
+ * simulation ends when the scope has no running children left, and
+ * shutting the simulation down cancels the scope, and thereby every
+ * being, with a single call instead of asking and then polling each
+ * being in turn.
+ * <p>
+ * The beings run on a pool with one thread per being unless a
+ * thread count is given, much like coroutines on a dispatcher with
+ * limited parallelism. This is written in Java rather than with
+ * Kotlin coroutines since the rest of the simulator is Java, and
+ * StructuredTaskScope requires a JDK that isn't available on Android.
+ */
+public class CoroutineMgr
+        extends BeingManager<ScopedBeing> {
+    /**
+     * Used for Android debugging.
+     */
+    private final static String TAG =
+            CoroutineMgr.class.getName();
+
+    /**
+     * The scope of the simulation that is currently running.
+     */
+    private volatile SimulationScope mScope;
+
+    /**
+     * Default constructor.
+     */
+    public CoroutineMgr() {
+    }
+
+    /**
+     * Abstract method that BeingManagers implement to return a new
+     * ScopedBeing instance.
+     *
+     * @return A new typed Being instance.
+     */
+    @Override
+    public ScopedBeing newBeing() {
+        return new ScopedBeing(this);
+    }
+
+    /**
+     * This entry point method is called by the Simulator framework to
+     * start the being gazing simulation. It blocks until all beings
+     * have completed or the simulation has been shutdown.
+     **/
+    @Override
+    public void runSimulation() {
+        try (SimulationScope scope =
+                     new SimulationScope(Executors.newFixedThreadPool(getThreadCount()))) {
+            mScope = scope;
+
+            // Start every being as a child of the scope.
+            getBeings().forEach(scope::fork);
+
+            // Wait for all beings to finish gazing.
+            scope.join();
+
+            Controller.log(TAG + ": runSimulation: all beings completed.");
+        } catch (ExecutionException e) {
+            // Throw rather than call error() since a shutdown from
+            // this thread would wait for itself to end. start()
+            // records the failure.
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } finally {
+            mScope = null;
+        }
+    }
+
+    /**
+     * Cancels the scope of the running simulation, which cancels and
+     * interrupts all of its beings, and then waits for them to
+     * finish.
+     */
+    @Override
+    public void shutdown() {
+        Controller.log(TAG + ": shutdown: called.");
+
+        SimulationScope scope = mScope;
+        if (scope != null) {
+            scope.cancel();
+
+            try {
+                if (!scope.awaitTermination(MAX_WAIT)) {
+                    Controller.log(TAG + ": shutdown: Beings didn't respond to cancellation!");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        shutdownNow();
+
+        Controller.log(TAG + ": shutdown: completed.");
+    }
+
+    /**
+     * Called to release resources once the beings have stopped. The
+     * scope shuts down its own executor when the simulation ends, so
+     * this only reports any beings that are still running.
+     */
+    @Override
+    public void shutdownNow() {
+        Controller.log(TAG + ": shutdownNow: exited with "
+                + getRunningBeingCount() + "/"
+                + getBeingCount() + " running beings.");
+    }
+}
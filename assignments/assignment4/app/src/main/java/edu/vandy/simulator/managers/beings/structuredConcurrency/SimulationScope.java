@@ -0,0 +1,177 @@
+package edu.vandy.simulator.managers.beings.structuredConcurrency;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+
+/**
+ * A scope that owns the beings of one simulation run, modelled on
+ * Java's StructuredTaskScope and on a Kotlin coroutineScope. Each
+ * being is forked as a child task of the scope, the scope can't
+ * complete before all of its children have, and the first child to
+ * fail cancels its siblings. Cancelling the scope cancels every child
+ * with a single call, and waiting for the children to leave is done
+ * on a latch that the last one opens, so nobody has to poll the
+ * beings to see whether they are still running.
+ */
+class SimulationScope
+        implements AutoCloseable {
+    /**
+     * The executor that runs the children.
+     */
+    private final ExecutorService mExecutor;
+
+    /**
+     * The children forked by this scope.
+     */
+    private final List<ScopedBeing> mChildren = new ArrayList<>();
+
+    /**
+     * The number of children that have not finished, plus one for
+     * the owner until it calls {@link #join}.
+     */
+    private final AtomicInteger mPending = new AtomicInteger(1);
+
+    /**
+     * Opened once the owner has joined and every child has finished.
+     */
+    private final CountDownLatch mDone = new CountDownLatch(1);
+
+    /**
+     * The first exception thrown by a child.
+     */
+    private final AtomicReference<Throwable> mFailure = new AtomicReference<>();
+
+    /**
+     * True once the scope has been cancelled.
+     */
+    private boolean mCancelled;
+
+    /**
+     * True once the owner has released its count.
+     */
+    private boolean mJoined;
+
+    /**
+     * Constructor initializes the field.
+     *
+     * @param executor The executor that runs the children, which is
+     *                 shut down when the scope is closed.
+     */
+    SimulationScope(ExecutorService executor) {
+        mExecutor = executor;
+    }
+
+    /**
+     * Starts the passed being as a child of this scope. Nothing is
+     * started once the scope has been cancelled.
+     *
+     * @param being The being to run.
+     */
+    synchronized void fork(ScopedBeing being) {
+        if (mCancelled) {
+            return;
+        }
+
+        mChildren.add(being);
+        mPending.incrementAndGet();
+        mExecutor.execute(() -> runChild(being));
+    }
+
+    /**
+     * Runs a child, cancelling the scope if the child fails.
+     *
+     * @param being The being to run.
+     */
+    private void runChild(ScopedBeing being) {
+        try {
+            being.run();
+        } catch (Throwable t) {
+            if (mFailure.compareAndSet(null, t)) {
+                cancel();
+            }
+        } finally {
+            finished();
+        }
+    }
+
+    /**
+     * Releases one count and opens the latch when none are left.
+     */
+    private void finished() {
+        if (mPending.decrementAndGet() == 0) {
+            mDone.countDown();
+        }
+    }
+
+    /**
+     * Waits for all children to finish, whether they completed
+     * normally or were cancelled.
+     *
+     * @throws ExecutionException   Thrown with the first exception
+     *                              thrown by a child.
+     * @throws InterruptedException Thrown if the owner is
+     *                              interrupted while waiting.
+     */
+    void join() throws ExecutionException, InterruptedException {
+        synchronized (this) {
+            if (!mJoined) {
+                mJoined = true;
+                finished();
+            }
+        }
+
+        mDone.await();
+
+        Throwable failure = mFailure.get();
+        if (failure != null) {
+            throw new ExecutionException(failure);
+        }
+    }
+
+    /**
+     * Waits for all children to finish after the scope has been
+     * cancelled.
+     *
+     * @param timeout The maximum time to wait in milliseconds.
+     * @return {@code true} if all children have finished.
+     */
+    boolean awaitTermination(long timeout) throws InterruptedException {
+        return mDone.await(timeout, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Cancels all children and prevents any more from being forked.
+     * Each child is asked to stop by setting its cancelled flag,
+     * which also wakes it if it is pausing in a state, and is then
+     * interrupted so that one waiting for a palantir gives up right
+     * away instead of only when the next palantir is released.
+     */
+    synchronized void cancel() {
+        if (!mCancelled) {
+            mCancelled = true;
+            mChildren.forEach(being -> {
+                if (!being.isCancelled()) {
+                    being.shutdownNow();
+                }
+                being.interruptNow();
+            });
+        }
+    }
+
+    /**
+     * Cancels any children that are still running and shuts down
+     * the executor.
+     */
+    @Override
+    public void close() {
+        cancel();
+        mExecutor.shutdown();
+    }
+}
@@ -0,0 +1,54 @@
+package edu.vandy.simulator.managers.beings.virtualThreads;
+
+import edu.vandy.simulator.managers.beings.Being;
+import edu.vandy.simulator.managers.beings.BeingManager;
+import edu.vandy.simulator.managers.palantiri.Palantir;
+
+/**
+ * This class implements the gazing logic of a Being that
+ * runs on its own (virtual) thread.
+ */
+class VirtualBeing
+        extends Being
+        implements Runnable {
+    /**
+     * Constructor initializes the field.
+     *
+     * @param manager The controlling BeingManager instance.
+     */
+    VirtualBeing(BeingManager manager) {
+        // Call super constructor passing the manager.
+        super(manager);
+    }
+
+    /**
+     * Run the loop that performs the Being gazing logic.
+     */
+    @Override
+    public void run() {
+        // Gaze at a palantir the designated number of times.
+        runGazingSimulation(getGazingIterations());
+    }
+
+    /**
+     * Perform a single gazing operation.
+     */
+    @Override
+    protected void acquirePalantirAndGaze() {
+        // Get a palantir from the BeingManager, blocking until
+        // one is available.
+        Palantir palantir = acquirePalantir();
+
+        // A null palantir indicates a concurrency error
+        // in the palantiri manager implementation.
+        if (palantir == null) {
+            error("Received a null palantir from the palantiri manager.");
+        }
+
+        // Gaze at the palantir for a random period of time.
+        palantir.gaze(this);
+
+        // Release the palantir for other beings to use.
+        releasePalantir(palantir);
+    }
+}
@@ -0,0 +1,205 @@
+package edu.vandy.simulator.managers.beings.virtualThreads;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import edu.vandy.simulator.Controller;
+import edu.vandy.simulator.managers.beings.BeingManager;
+import edu.vandy.simulator.utils.Log;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * This BeingManager implementation runs each being on its own
+ * virtual thread so that the number of beings is not limited by
+ * the number of platform threads. Blocking calls made by a being
+ * (acquiring a palantir or pausing between states) unmount its
+ * virtual thread from the underlying carrier thread, so a small
+ * pool of carriers can run hundreds of thousands of beings.
+ * <p>
+ * Virtual threads require JDK 21+, which is not available on
+ * Android or at this project's Java 8 language level, so the
+ * executor is looked up reflectively. When it is not available
+ * this manager logs a warning and falls back to a pool of at most
+ * {@link #MAX_PLATFORM_THREADS} platform threads, so a large model
+ * runs its beings in turn instead of exhausting the platform threads.
+ */
+public class VirtualThreadsMgr
+        extends BeingManager<VirtualBeing> {
+    /**
+     * Used for Android debugging.
+     */
+    private final static String TAG =
+            VirtualThreadsMgr.class.getName();
+
+    /**
+     * The maximum number of platform threads used when virtual
+     * threads are not supported by the running JVM.
+     */
+    public static final int MAX_PLATFORM_THREADS = 1024;
+
+    /**
+     * The JDK 21+ Executors.newVirtualThreadPerTaskExecutor() method,
+     * or null if virtual threads are not supported.
+     */
+    private static final Method sVirtualThreadFactory =
+            findVirtualThreadFactory();
+
+    /**
+     * The executor that runs each being on a new (virtual) thread.
+     */
+    private ExecutorService mExecutor;
+
+    /**
+     * Default constructor.
+     */
+    public VirtualThreadsMgr() {
+    }
+
+    /**
+     * Abstract method that BeingManagers implement to return a new
+     * VirtualBeing instance.
+     *
+     * @return A new typed Being instance.
+     */
+    @Override
+    public VirtualBeing newBeing() {
+        return new VirtualBeing(this);
+    }
+
+    /**
+     * This entry point method is called by the Simulator framework to
+     * start the being gazing simulation. It blocks until all beings
+     * have completed or the simulation has been shutdown.
+     **/
+    @Override
+    public void runSimulation() {
+        mExecutor = createExecutorService();
+
+        try {
+            // Start every being on its own thread.
+            List<Future<?>> futures = getBeings()
+                    .stream()
+                    .map(being -> mExecutor.submit(being))
+                    .collect(toList());
+
+            // Wait for all beings to finish gazing, even if one of
+            // them failed, so that none are running on return.
+            Throwable failure = null;
+            boolean cancelled = false;
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = e.getCause();
+                    }
+                } catch (CancellationException e) {
+                    // The being was still queued for a platform
+                    // thread when the simulation was shutdown.
+                    cancelled = true;
+                }
+            }
+
+            // Throw rather than call error() since a shutdown from
+            // this thread would wait for itself to end. start()
+            // records the failure.
+            if (failure != null) {
+                throw new IllegalStateException(failure);
+            } else if (cancelled) {
+                throw new CancellationException(
+                        TAG + ": simulation was shutdown.");
+            }
+
+            Controller.log(TAG + ": runSimulation: all beings completed.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } finally {
+            mExecutor.shutdown();
+        }
+    }
+
+    /**
+     * @return True if the running JVM supports virtual threads, else
+     * beings run on a bounded pool of platform threads.
+     */
+    public static boolean isVirtualThreadsSupported() {
+        return sVirtualThreadFactory != null;
+    }
+
+    /**
+     * Returns the number of beings run at the same time, which is
+     * limited to {@link #MAX_PLATFORM_THREADS} when virtual threads
+     * are not supported.
+     *
+     * @return The number of beings run concurrently.
+     */
+    @Override
+    public int getConcurrency() {
+        int concurrency = super.getConcurrency();
+        return isVirtualThreadsSupported()
+                ? concurrency
+                : Math.min(concurrency, MAX_PLATFORM_THREADS);
+    }
+
+    /**
+     * @return An executor that starts a new virtual thread for each
+     * task, or a pool of at most {@link #MAX_PLATFORM_THREADS}
+     * platform threads if virtual threads are not supported by the
+     * running JVM.
+     */
+    private ExecutorService createExecutorService() {
+        if (isVirtualThreadsSupported()) {
+            try {
+                return (ExecutorService) sVirtualThreadFactory.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        int threads = getConcurrency();
+        Log.w(TAG, "virtual threads are not supported by this JVM; "
+                + "running " + getBeingCount() + " beings on "
+                + threads + " platform threads.");
+        return Executors.newFixedThreadPool(threads);
+    }
+
+    /**
+     * @return The Executors.newVirtualThreadPerTaskExecutor() method
+     * or null if the running JVM does not support virtual threads.
+     */
+    private static Method findVirtualThreadFactory() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Called to terminate the executor. All beings will have already
+     * been asked to stop by the base class before this method is
+     * called, so any remaining beings are interrupted.
+     */
+    @Override
+    public void shutdownNow() {
+        Controller.log(TAG + ": shutdownNow: entered");
+
+        if (mExecutor != null) {
+            // Cancel the beings still queued for a platform thread so
+            // that runSimulation() stops waiting for them.
+            mExecutor.shutdownNow()
+                    .forEach(task -> ((Future<?>) task).cancel(false));
+        }
+
+        Controller.log(TAG + ": shutdownNow: exited with "
+                + getRunningBeingCount() + "/"
+                + getBeingCount() + " running beings.");
+    }
+}
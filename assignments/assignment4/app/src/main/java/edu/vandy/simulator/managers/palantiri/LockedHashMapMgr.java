@@ -0,0 +1,203 @@
+package edu.vandy.simulator.managers.palantiri;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A PalantiriManager implemented using a lock, a fair Semaphore, and
+ * a HashMap. The Semaphore limits concurrent access to the fixed
+ * number of palantiri and the lock serializes access to the HashMap
+ * that keeps track of which palantiri are available. Subclasses
+ * supply the lock by implementing {@link #lockMap},
+ * {@link #lockMapUncancellably}, and {@link #unlockMap}, and decide
+ * how a blocking {@link #acquire} waits for a permit.
+ */
+public abstract class LockedHashMapMgr
+        extends PalantiriManager {
+    /**
+     * A map that associates the @a Palantiri key to the @a boolean
+     * values that keep track of whether the key is available.
+     */
+    private HashMap<Palantir, Boolean> mPalantiriMap;
+
+    /**
+     * A counting Semaphore that limits concurrent access to the fixed
+     * number of available palantiri managed by the PalantiriManager.
+     */
+    private Semaphore mAvailablePalantiri;
+
+    /**
+     * Acquires the lock that guards the palantiri map before a
+     * palantir is claimed.
+     *
+     * @return {@code true} if the lock was acquired and {@code false}
+     * if the attempt gave up, e.g., because a lock timeout elapsed.
+     * @throws CancellationException Thrown if the attempt is cancelled.
+     */
+    protected abstract boolean lockMap() throws CancellationException;
+
+    /**
+     * Acquires the lock that guards the palantiri map before a
+     * palantir is returned. A palantir must be returned even while
+     * shutting down, so this attempt must never be abandoned.
+     */
+    protected abstract void lockMapUncancellably();
+
+    /**
+     * Releases the lock that guards the palantiri map.
+     */
+    protected abstract void unlockMap();
+
+    /**
+     * @return The available palantiri semaphore instance.
+     */
+    public Semaphore getAvailablePalantiri() {
+        return mAvailablePalantiri;
+    }
+
+    /**
+     * @return The palantiri map.
+     */
+    public HashMap<Palantir, Boolean> getPalantiriMap() {
+        return mPalantiriMap;
+    }
+
+    /**
+     * @return The number of currently available palantiri.
+     */
+    public int availablePalantiri() {
+        return mAvailablePalantiri.availablePermits();
+    }
+
+    /**
+     * Called by super class to build the Palantiri model. Subclasses
+     * must create their lock before calling this method. Note that
+     * this method is only called when the number of palantiri is
+     * changed from the last simulation run.
+     */
+    @Override
+    protected void buildModel() {
+        mPalantiriMap = new HashMap<>();
+        fillMap();
+    }
+
+    /**
+     * Resets the fields to their initial values. This method is
+     * called at the end of every simulation run so that the manager
+     * will be ready for the next simulation run.
+     */
+    @Override
+    public void reset() {
+        super.reset();
+
+        // Mark all palantiri as available again.
+        fillMap();
+    }
+
+    /**
+     * Marks every palantir as available and creates a new fair
+     * semaphore with one permit for each of them.
+     */
+    private void fillMap() {
+        mPalantiriMap.clear();
+        getPalantiri().forEach(palantir -> mPalantiriMap.put(palantir, true));
+        mAvailablePalantiri = new Semaphore(getPalantirCount(), true);
+    }
+
+    /**
+     * Get a Palantir from the PalantiriManager, blocking until one is
+     * available or the timeout elapses.
+     *
+     * @return The first available Palantir or null if the timeout
+     * elapsed or {@link #lockMap} gave up.
+     */
+    @Override
+    protected Palantir tryAcquire(long timeout, TimeUnit unit)
+            throws CancellationException, InterruptedException {
+        if (!mAvailablePalantiri.tryAcquire(timeout, unit)) {
+            return null;
+        }
+
+        return claim();
+    }
+
+    /**
+     * Claims an available palantir from the map. The caller must
+     * already hold a permit, so there is always one to claim.
+     *
+     * @return The claimed palantir or null if {@link #lockMap} gave
+     * up, in which case the permit has been released.
+     * @throws CancellationException Thrown if the attempt to lock
+     *                               is cancelled, in which case the
+     *                               permit has been released.
+     */
+    protected Palantir claim() throws CancellationException {
+        boolean locked = false;
+        try {
+            locked = lockMap();
+        } finally {
+            if (!locked) {
+                // Return the permit that was never used.
+                mAvailablePalantiri.release();
+            }
+        }
+
+        if (!locked) {
+            return null;
+        }
+
+        try {
+            for (Map.Entry<Palantir, Boolean> entry : mPalantiriMap.entrySet()) {
+                if (entry.getValue()) {
+                    entry.setValue(false);
+                    return entry.getKey();
+                }
+            }
+        } finally {
+            unlockMap();
+        }
+
+        throw new IllegalStateException("No palantir available for an acquired permit.");
+    }
+
+    /**
+     * Returns the designated {@code palantir} to the PalantiriManager
+     * so it's available for other beings to use.
+     *
+     * @param palantir The palantir to release back to the Palantiri pool
+     */
+    @Override
+    protected void release(Palantir palantir) {
+        // Do a simple sanity check!
+        if (palantir != null) {
+            lockMapUncancellably();
+
+            boolean acquired;
+            try {
+                acquired = mPalantiriMap.replace(palantir, false, true);
+            } finally {
+                unlockMap();
+            }
+
+            if (!acquired) {
+                throw new IllegalStateException(
+                        "Palantir " + palantir.getId() + " was not acquired.");
+            }
+
+            mAvailablePalantiri.release();
+        }
+    }
+
+    /**
+     * Called when the simulation is being shutdown to allow model
+     * components the opportunity to and release resources and to
+     * reset field values. The Beings will have already have been
+     * shutdown by the base class before calling this method.
+     */
+    @Override
+    public void shutdownNow() {
+    }
+}
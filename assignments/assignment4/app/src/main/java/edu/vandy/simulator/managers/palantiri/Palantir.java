@@ -1,6 +1,8 @@
 package edu.vandy.simulator.managers.palantiri;
 
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 import edu.vandy.simulator.managers.beings.Being;
 import edu.vandy.simulator.model.implementation.components.PalantirComponent;
@@ -59,6 +61,20 @@ public class Palantir
         mCount++;
     }
 
+    /**
+     * Asynchronous version of {@link #gaze} that doesn't block the
+     * calling thread while the being gazes.
+     *
+     * @param being    The being that is starting to gaze.
+     * @param executor The executor that runs dependent actions.
+     * @return A future that completes when gazing has finished.
+     */
+    public CompletableFuture<Void> gazeAsync(Being being, Executor executor) {
+        return mManager.gazeAtPalantirAsync(being, this, executor)
+                // Keep track of gazing count for auditing.
+                .thenRun(() -> mCount++);
+    }
+
     /**
      * @return Asks controlling manager if the simulation
      * has a pending error request.
@@ -4,8 +4,13 @@ import org.jetbrains.annotations.NotNull;
 
 import java.lang.reflect.Constructor;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 import edu.vandy.simulator.Simulator;
 import edu.vandy.simulator.managers.beings.Being;
@@ -86,6 +91,99 @@ public abstract class PalantiriManager
      */
     protected abstract void release(Palantir palantir) throws InterruptedException;
 
+    /**
+     * Called to acquire a Palantir, blocking until one is available
+     * or the timeout elapses. Managers that support timed acquisition
+     * should override this method using their synchronizer's native
+     * timed wait.
+     *
+     * @param timeout The maximum time to wait.
+     * @param unit    The time unit of the timeout argument.
+     * @return The first available Palantir or null if the timeout
+     * elapsed before a Palantir became available.
+     */
+    protected Palantir tryAcquire(long timeout, TimeUnit unit)
+            throws CancellationException, InterruptedException {
+        throw new UnsupportedOperationException
+                (getClass().getSimpleName() + " does not support timed acquisition.");
+    }
+
+    /**
+     * Called to acquire a Palantir without blocking the calling
+     * thread. The returned future is completed with a Palantir as
+     * soon as one is available, typically by the thread that
+     * releases it, so a small pool of threads can drive many more
+     * beings than it has threads. Managers that support asynchronous
+     * acquisition should override this method together with {@link
+     * #supportsAsyncAcquire} and hand each released Palantir directly
+     * to the oldest pending future.
+     *
+     * @return A future that completes with the acquired Palantir or
+     * exceptionally with a CancellationException on shutdown.
+     */
+    @NotNull
+    protected CompletableFuture<Palantir> acquireAsync() {
+        throw new UnsupportedOperationException
+                (getClass().getSimpleName() + " does not support asynchronous acquisition.");
+    }
+
+    /**
+     * Allows being managers that only acquire Palantiri
+     * asynchronously to reject this manager before any being starts.
+     *
+     * @return True if this manager implements {@link #acquireAsync}.
+     */
+    public boolean supportsAsyncAcquire() {
+        return false;
+    }
+
+    /**
+     * Called to atomically acquire {@code count} Palantiri, blocking
+     * until that many are available at once. Unlike calling {@link
+     * #acquire()} in a loop, a being never holds some of the
+     * Palantiri while waiting for the rest, so concurrent batch
+     * requests can't deadlock. Managers that support batching should
+     * override this method together with {@link #tryAcquire(int)}.
+     *
+     * @param count The number of Palantiri to acquire.
+     * @return The acquired Palantiri.
+     */
+    @NotNull
+    protected List<Palantir> acquire(int count)
+            throws CancellationException, InterruptedException {
+        throw new UnsupportedOperationException
+                (getClass().getSimpleName() + " does not support batched acquisition.");
+    }
+
+    /**
+     * Called to atomically acquire {@code count} Palantiri without
+     * blocking. Either all or none of the Palantiri are acquired.
+     *
+     * @param count The number of Palantiri to acquire.
+     * @return The acquired Palantiri or an empty list if fewer than
+     * {@code count} Palantiri are currently available.
+     */
+    @NotNull
+    protected List<Palantir> tryAcquire(int count) {
+        throw new UnsupportedOperationException
+                (getClass().getSimpleName() + " does not support batched acquisition.");
+    }
+
+    /**
+     * Returns the designated {@code palantiri} to the pool of
+     * available Palantiri. This default implementation releases
+     * each palantir individually. Managers that can return several
+     * Palantiri in one operation should override this method.
+     *
+     * @param palantiri The palantiri to release back to the
+     *                  Palantir pool.
+     */
+    protected void release(Collection<Palantir> palantiri) throws InterruptedException {
+        for (Palantir palantir : palantiri) {
+            release(palantir);
+        }
+    }
+
     /**
      * Called when the simulation is being shutdown
      * to allow model components the opportunity to
@@ -158,6 +256,105 @@ public abstract class PalantiriManager
         }
     }
 
+    /**
+     * Get the next available Palantir from the resource pool,
+     * blocking until one is available or the timeout elapses. This
+     * allows callers to shed work when the pool is overloaded rather
+     * than queueing indefinitely.
+     *
+     * @param beingId The being id (not currently used).
+     * @param timeout The maximum time to wait.
+     * @param unit    The time unit of the timeout argument.
+     * @return The acquired Palantir, or an empty Optional if the
+     * timeout elapsed or the calling thread was interrupted, in which
+     * case the thread's interrupt status is set.
+     */
+    @NotNull
+    final public Optional<Palantir> tryAcquirePalantir(long beingId,
+                                                       long timeout,
+                                                       TimeUnit unit) {
+        try {
+            return Optional.ofNullable(tryAcquire(timeout, unit));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Get the next available Palantir from the resource pool without
+     * blocking the calling thread. Note that the future may be
+     * completed by the thread releasing the Palantir, so dependent
+     * actions that gaze or otherwise take time should be attached
+     * with one of the CompletableFuture *Async methods.
+     *
+     * @param beingId The being id (not currently used).
+     * @return A future that completes with the acquired Palantir.
+     */
+    @NotNull
+    final public CompletableFuture<Palantir> acquirePalantirAsync(long beingId) {
+        return acquireAsync();
+    }
+
+    /**
+     * Atomically acquires {@code count} Palantiri from the resource
+     * pool, blocking until that many are available at once.
+     *
+     * @param beingId The being id (not currently used).
+     * @param count   The number of Palantiri to acquire.
+     * @return The acquired Palantiri or null if a shutdown is in
+     * progress.
+     */
+    final public List<Palantir> acquirePalantiri(long beingId, int count) {
+        checkBatchCount(count);
+        try {
+            return acquire(count);
+        } catch (InterruptedException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Atomically acquires {@code count} Palantiri from the resource
+     * pool if that many are available, without blocking.
+     *
+     * @param count The number of Palantiri to acquire.
+     * @return The acquired Palantiri or an empty list if fewer than
+     * {@code count} Palantiri are currently available.
+     */
+    @NotNull
+    final public List<Palantir> tryAcquirePalantiri(int count) {
+        checkBatchCount(count);
+        return tryAcquire(count);
+    }
+
+    /**
+     * Releases the designated {@code palantiri} so they're available
+     * for other Beings to use.
+     *
+     * @param palantiri The Palantiri to release.
+     */
+    final public void releasePalantiri(Collection<Palantir> palantiri) {
+        try {
+            release(palantiri);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Validates the number of Palantiri requested by a batch
+     * operation.
+     *
+     * @param count The number of Palantiri requested.
+     */
+    private void checkBatchCount(int count) {
+        if (count < 1 || count > getPalantirCount()) {
+            throw new IllegalArgumentException
+                    ("Cannot acquire " + count + " of " + getPalantirCount() + " palantiri.");
+        }
+    }
+
     /**
      * Performs a being request to gaze at the previously
      * acquired palantir for a random interval of time.
@@ -171,6 +368,22 @@ public abstract class PalantiriManager
         mSimulator.gazeIntoPalantir(being, palantir);
     }
 
+    /**
+     * Asynchronous version of {@link #gazeAtPalantir} that is
+     * forwarded to the simulator to handle.
+     *
+     * @param being    The being that is requesting to gaze.
+     * @param palantir The palantir previously acquired by a call
+     *                 to {@link #acquirePalantirAsync(long)}.
+     * @param executor The executor that runs dependent actions.
+     * @return A future that completes when gazing has finished.
+     */
+    public CompletableFuture<Void> gazeAtPalantirAsync(Being being,
+                                                       Palantir palantir,
+                                                       Executor executor) {
+        return mSimulator.gazeIntoPalantirAsync(being, palantir, executor);
+    }
+
     /**
      * Releases the designated @code palantir so it's available for
      * other Beings to use.  If @a palantir is null it is ignored.
@@ -309,10 +522,13 @@ public abstract class PalantiriManager
         public enum Type {
             ARRAY_BLOCKING_QUEUE("arrayBlockingQueuePalantiriManager.ArrayBlockingQueueMgr"),
             SPIN_LOCK_SEMAPHORE("spinLockHashMap.SpinLockHashMapMgr"),
+            QUEUE_LOCK_SEMAPHORE("spinLockHashMap.QueueLockHashMapMgr"),
             REENTRANT_LOCK_HASH_MAP_SIMPLE_SEMAPHORE("reentrantLockHashMapSimpleSemaphore.ReentrantLockHashMapSimpleSemaphoreMgr"),
             FAIR_STAMPED_LOCK("stampedLockFairSemaphore.StampedLockFairSemaphoreMgr"),
             CONCURRENT_MAP_FAIR_SEMAPHORE("concurrentMapFairSemaphore.ConcurrentMapFairSemaphoreMgr"),
-            SUSPENDING_SPIN_LOCK_SEMAPHORE("structuredConcurrency.SpinLockHashMapMgr");
+            SUSPENDING_SPIN_LOCK_SEMAPHORE("structuredConcurrency.SpinLockHashMapMgr"),
+            ATOMIC_BITMAP("atomicBitmap.AtomicBitmapMgr"),
+            SHARDED_POOL("shardedPool.ShardedPoolMgr");
 
             public final String className;
 
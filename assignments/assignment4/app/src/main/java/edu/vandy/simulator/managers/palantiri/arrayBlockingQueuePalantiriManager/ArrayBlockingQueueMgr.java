@@ -2,8 +2,12 @@ package edu.vandy.simulator.managers.palantiri.arrayBlockingQueuePalantiriManage
 
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Queue;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
 
 import edu.vandy.simulator.managers.palantiri.Palantir;
 import edu.vandy.simulator.managers.palantiri.PalantiriManager;
@@ -29,6 +33,18 @@ public class ArrayBlockingQueueMgr
      */
     private ArrayBlockingQueue<Palantir> mAvailablePalantiri;
 
+    /**
+     * Futures returned by {@link #acquireAsync} that are waiting for
+     * a palantir, in the order they were requested.
+     */
+    private final Queue<CompletableFuture<Palantir>> mPending =
+            new ConcurrentLinkedQueue<>();
+
+    /**
+     * Flag set by {@link #shutdownNow} to cancel pending futures.
+     */
+    private volatile boolean mShutdown = false;
+
     /**
      * Resets the fields to their initial values and tells all beings
      * to reset themselves. This method is called at the end of
@@ -47,6 +63,9 @@ public class ArrayBlockingQueueMgr
 
         // Add each palantiri back into the queue.
         mAvailablePalantiri.addAll(getPalantiri());
+
+        mPending.clear();
+        mShutdown = false;
     }
 
     /**
@@ -96,19 +115,134 @@ public class ArrayBlockingQueueMgr
                         "In either case, this statement should not be reached.");
     }
 
+    /**
+     * Try to get the next available Palantir from the resource pool,
+     * blocking until one is available or the timeout elapses.
+     *
+     * @return The first available Palantir or null if the timeout
+     * elapsed.
+     */
+    @Override
+    public Palantir tryAcquire(long timeout, TimeUnit unit) throws InterruptedException {
+        return mAvailablePalantiri.poll(timeout, unit);
+    }
+
+    /**
+     * Get the next available Palantir from the resource pool without
+     * blocking. If none is available, the returned future is queued
+     * and completed by the thread that next releases a palantir.
+     *
+     * @return A future that completes with the acquired Palantir.
+     */
+    @NotNull
+    @Override
+    public CompletableFuture<Palantir> acquireAsync() {
+        // Only take the fast path if no earlier request is queued
+        // so that pending futures are served in FIFO order.
+        if (mPending.isEmpty()) {
+            Palantir palantir = mAvailablePalantiri.poll();
+            if (palantir != null) {
+                return CompletableFuture.completedFuture(palantir);
+            }
+        }
+
+        CompletableFuture<Palantir> future = new CompletableFuture<>();
+
+        // Enqueue before re-checking the queue so that a concurrent
+        // release either sees this future or its palantir is seen
+        // here.
+        mPending.add(future);
+        dispatchPending();
+
+        // Don't leave the future behind if shutdownNow() has
+        // already drained the pending queue.
+        if (mShutdown) {
+            cancelPending();
+        }
+
+        return future;
+    }
+
+    /**
+     * @return True since this manager implements {@link #acquireAsync}.
+     */
+    @Override
+    public boolean supportsAsyncAcquire() {
+        return true;
+    }
+
     /**
      * Returns the designated {@code palantir} back to the
      * PalantiriManager so it's available for other threads to use.
+     * If a future is waiting for a palantir it's handed the palantir
+     * directly instead.
      */
     public void release(final Palantir palantir) {
         // Do a simple sanity check!
         if (palantir != null) {
+            if (!mPending.isEmpty() && handOff(palantir)) {
+                return;
+            }
+
             try {
                 // Add a palantir parameter back to the queue.
                 mAvailablePalantiri.put(palantir);
             } catch (InterruptedException e) {
                 e.printStackTrace();
             }
+
+            // A future may have been queued after the check above.
+            dispatchPending();
+        }
+    }
+
+    /**
+     * Takes available palantiri from the queue for pending futures
+     * until either runs out. A palantir that no longer has a future
+     * to go to (because they were all cancelled) is put back.
+     */
+    private void dispatchPending() {
+        while (!mPending.isEmpty()) {
+            Palantir palantir = mAvailablePalantiri.poll();
+            if (palantir == null) {
+                return;
+            }
+
+            if (!handOff(palantir)) {
+                // Never blocks since the palantir was just taken
+                // from the queue.
+                mAvailablePalantiri.offer(palantir);
+            }
+        }
+    }
+
+    /**
+     * Completes the oldest pending future with {@code palantir},
+     * skipping futures that have been cancelled. Any dependent
+     * actions attached without an executor run in the calling
+     * thread.
+     *
+     * @param palantir A palantir taken from the pool.
+     * @return True if a future received the palantir, else false.
+     */
+    private boolean handOff(Palantir palantir) {
+        CompletableFuture<Palantir> future;
+        while ((future = mPending.poll()) != null) {
+            if (future.complete(palantir)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Completes all pending futures with a CancellationException.
+     */
+    private void cancelPending() {
+        CompletableFuture<Palantir> future;
+        while ((future = mPending.poll()) != null) {
+            future.completeExceptionally(
+                    new CancellationException("Palantiri manager was shutdown."));
         }
     }
 
@@ -117,6 +251,13 @@ public class ArrayBlockingQueueMgr
      * tests, not by applications.
      */
 
+    /**
+     * @return The number of currently available palantiri.
+     */
+    int availablePalantiri() {
+        return mAvailablePalantiri.size();
+    }
+
     /**
      * Called when the simulation is being shutdown to allow model
      * components the opportunity to and release resources and to
@@ -125,5 +266,7 @@ public class ArrayBlockingQueueMgr
      */
     @Override
     public void shutdownNow() {
+        mShutdown = true;
+        cancelPending();
     }
 }
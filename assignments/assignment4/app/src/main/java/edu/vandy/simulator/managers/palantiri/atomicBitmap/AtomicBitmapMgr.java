@@ -0,0 +1,653 @@
+package edu.vandy.simulator.managers.palantiri.atomicBitmap;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+import edu.vandy.simulator.managers.palantiri.Palantir;
+import edu.vandy.simulator.managers.palantiri.PalantiriManager;
+
+/**
+ * Defines a mechanism that mediates concurrent access to a fixed
+ * number of available Palantiri using a lock-free occupancy bitmap
+ * stored in a Java AtomicLongArray. Each bit represents one palantir
+ * and is set when that palantir is available. A palantir is claimed
+ * by atomically clearing its bit with a compare-and-swap, and is
+ * released by atomically setting it again.
+ * <p>
+ * Acquire and release never lock or allocate unless the pool is
+ * empty, in which case the acquiring being parks until a palantir
+ * is released. This implementation is not fair: a being arriving
+ * while a palantir is free may claim it ahead of a parked being.
+ * <p>
+ * Batched acquisition claims several bits of a word with a single
+ * compare-and-swap, so acquiring a batch costs about the same as
+ * acquiring one palantir when the batch fits in one word.
+ * <p>
+ * Asynchronous acquisition never parks: when the pool is empty the
+ * request is queued as a future and a release hands its palantir
+ * directly to the oldest pending future instead of setting its bit.
+ * Pending futures are served before parked beings.
+ */
+public class AtomicBitmapMgr
+        extends PalantiriManager {
+    /**
+     * Debugging tag used by the logger.
+     */
+    protected final static String TAG =
+            AtomicBitmapMgr.class.getSimpleName();
+
+    /**
+     * The number of bits held by each bitmap word.
+     */
+    private static final int BITS_PER_WORD = Long.SIZE;
+
+    /**
+     * The occupancy bitmap where a set bit marks an available
+     * palantir. Bit {@code i % 64} of word {@code i / 64}
+     * corresponds to the palantir at index {@code i}.
+     */
+    private AtomicLongArray mAvailable;
+
+    /**
+     * The palantiri indexed by their bitmap position.
+     */
+    private Palantir[] mPalantiriArray;
+
+    /**
+     * The id of the first palantir used to map a palantir
+     * back to its bitmap position on release.
+     */
+    private long mFirstId;
+
+    /**
+     * Beings parked waiting for a palantir to be released.
+     * Only used when the pool is empty.
+     */
+    private final Queue<Thread> mWaiters = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The number of parked beings waiting for more than one
+     * palantir. While there are any, a release wakes all parked
+     * beings since the longest waiting being may not be able to
+     * use the released palantiri.
+     */
+    private final AtomicInteger mBatchWaiters = new AtomicInteger();
+
+    /**
+     * Futures of asynchronous acquisitions waiting for a palantir
+     * to be released, in FIFO order.
+     */
+    private final Queue<CompletableFuture<Palantir>> mPending =
+            new ConcurrentLinkedQueue<>();
+
+    /**
+     * Flag set by {@link #shutdownNow} to cancel parked beings.
+     */
+    private volatile boolean mShutdown = false;
+
+    /**
+     * Called by super class to build the Palantiri model.
+     * Note that this method is only called when the number
+     * of palantiri is changed from the last simulation run.
+     */
+    @Override
+    public void buildModel() {
+        int palantiriCount = getPalantirCount();
+
+        // Index the palantiri by their bitmap position.
+        mPalantiriArray = getPalantiri().toArray(new Palantir[0]);
+        mFirstId = palantiriCount > 0 ? mPalantiriArray[0].getId() : 0;
+
+        // Allocate enough words to hold one bit per palantir
+        // and then mark every palantir as available.
+        mAvailable = new AtomicLongArray(
+                (palantiriCount + BITS_PER_WORD - 1) / BITS_PER_WORD);
+        fillBitmap();
+    }
+
+    /**
+     * Resets the fields to their initial values. This method is
+     * called at the end of every simulation run so that the manager
+     * will be ready for the next simulation run.
+     */
+    @Override
+    public void reset() {
+        super.reset();
+
+        // Mark all palantiri as available again.
+        fillBitmap();
+        mPending.clear();
+        mShutdown = false;
+    }
+
+    /**
+     * Sets the bit of every palantir in the bitmap.
+     */
+    private void fillBitmap() {
+        int count = mPalantiriArray.length;
+        for (int word = 0; word < mAvailable.length(); word++) {
+            int bits = Math.min(BITS_PER_WORD, count - word * BITS_PER_WORD);
+            mAvailable.set(word, bits == BITS_PER_WORD ? -1L : (1L << bits) - 1);
+        }
+    }
+
+    /**
+     * Get the next available Palantir from the resource pool,
+     * parking the calling thread only when no palantir is
+     * available.
+     *
+     * @return The first available Palantir.
+     */
+    @NotNull
+    @Override
+    public Palantir acquire() throws CancellationException, InterruptedException {
+        return awaitPalantir(false, 0);
+    }
+
+    /**
+     * Get the next available Palantir from the resource pool,
+     * parking the calling thread until one is available or the
+     * timeout elapses.
+     *
+     * @return The first available Palantir or null if the timeout
+     * elapsed.
+     */
+    @Override
+    public Palantir tryAcquire(long timeout, TimeUnit unit)
+            throws CancellationException, InterruptedException {
+        return awaitPalantir(true, System.nanoTime() + unit.toNanos(timeout));
+    }
+
+    /**
+     * Get the next available Palantir from the resource pool without
+     * blocking. If none is available, the returned future is queued
+     * and completed by the thread that next releases a palantir.
+     *
+     * @return A future that completes with the acquired Palantir.
+     */
+    @NotNull
+    @Override
+    public CompletableFuture<Palantir> acquireAsync() {
+        // Only take the fast path if no earlier request is queued
+        // so that pending futures are served in FIFO order.
+        if (mPending.isEmpty()) {
+            Palantir palantir = tryClaim();
+            if (palantir != null) {
+                return CompletableFuture.completedFuture(palantir);
+            }
+        }
+
+        CompletableFuture<Palantir> future = new CompletableFuture<>();
+
+        // Enqueue before re-checking the bitmap so that a concurrent
+        // release either sees this future or its bit is seen here.
+        mPending.add(future);
+        dispatchPending();
+
+        // Don't leave the future behind if shutdownNow() has
+        // already drained the queue.
+        if (mShutdown) {
+            cancelPending();
+        }
+
+        return future;
+    }
+
+    /**
+     * Claims an available palantir, parking the calling thread only
+     * when no palantir is available.
+     *
+     * @param timed    True if the wait is bounded by the deadline.
+     * @param deadline The System.nanoTime() deadline of a timed wait.
+     * @return The claimed Palantir or null if a timed wait elapsed.
+     */
+    private Palantir awaitPalantir(boolean timed, long deadline)
+            throws CancellationException, InterruptedException {
+        // Fast path: claim a free bit without touching the
+        // waiters queue.
+        Palantir palantir = tryClaim();
+        if (palantir != null) {
+            return palantir;
+        }
+
+        Thread thread = Thread.currentThread();
+
+        // Enqueue before re-checking the bitmap so that a
+        // concurrent release either sees this waiter or
+        // this waiter sees the released bit.
+        mWaiters.add(thread);
+
+        try {
+            while (true) {
+                palantir = tryClaim();
+                if (palantir != null) {
+                    return palantir;
+                }
+
+                if (mShutdown) {
+                    throw new CancellationException("Palantiri manager was shutdown.");
+                }
+
+                if (!timed) {
+                    LockSupport.park(this);
+                } else {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        return null;
+                    }
+                    LockSupport.parkNanos(this, remaining);
+                }
+
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+        } finally {
+            mWaiters.remove(thread);
+
+            // A release may have unparked this thread just as it
+            // was leaving (or after it claimed a different bit), so
+            // pass the wakeup on if palantiri are still available.
+            if (!mWaiters.isEmpty() && hasAvailable()) {
+                signalWaiters();
+            }
+        }
+    }
+
+    /**
+     * Atomically acquires {@code count} palantiri, parking the
+     * calling thread until that many are available at once.
+     *
+     * @param count The number of palantiri to acquire.
+     * @return The acquired palantiri.
+     */
+    @NotNull
+    @Override
+    public List<Palantir> acquire(int count) throws CancellationException, InterruptedException {
+        if (count == 1) {
+            return Collections.singletonList(acquire());
+        }
+
+        List<Palantir> palantiri = tryClaim(count);
+        if (palantiri != null) {
+            return palantiri;
+        }
+
+        Thread thread = Thread.currentThread();
+
+        // Register before re-checking the bitmap (see acquire()).
+        mBatchWaiters.incrementAndGet();
+        mWaiters.add(thread);
+
+        try {
+            while (true) {
+                palantiri = tryClaim(count);
+                if (palantiri != null) {
+                    return palantiri;
+                }
+
+                if (mShutdown) {
+                    throw new CancellationException("Palantiri manager was shutdown.");
+                }
+
+                LockSupport.park(this);
+
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+        } finally {
+            mWaiters.remove(thread);
+            mBatchWaiters.decrementAndGet();
+
+            if (!mWaiters.isEmpty() && hasAvailable()) {
+                signalWaiters();
+            }
+        }
+    }
+
+    /**
+     * Atomically acquires {@code count} palantiri if that many are
+     * available, without blocking.
+     *
+     * @param count The number of palantiri to acquire.
+     * @return The acquired palantiri or an empty list if fewer than
+     * {@code count} palantiri are available.
+     */
+    @NotNull
+    @Override
+    public List<Palantir> tryAcquire(int count) {
+        List<Palantir> palantiri = tryClaim(count);
+        return palantiri != null ? palantiri : Collections.emptyList();
+    }
+
+    /**
+     * Returns the designated {@code palantir} back to the
+     * PalantiriManager so it's available for other threads to use.
+     *
+     * @param palantir The palantir to release.
+     */
+    @Override
+    public void release(final Palantir palantir) {
+        // Do a simple sanity check!
+        if (palantir != null) {
+            int index = indexOf(palantir);
+            int word = index / BITS_PER_WORD;
+            long mask = 1L << (index % BITS_PER_WORD);
+
+            // Hand the palantir straight to a pending future, in
+            // which case its bit is never set.
+            if (!mPending.isEmpty()
+                    && (mAvailable.get(word) & mask) == 0
+                    && handOff(palantir)) {
+                return;
+            }
+
+            // Set the palantir's bit and wake a waiting being.
+            setBits(word, mask);
+            signalWaiters();
+
+            // A future may have been queued after the check above.
+            dispatchPending();
+        }
+    }
+
+    /**
+     * Returns the designated {@code palantiri} back to the
+     * PalantiriManager using one compare-and-swap per bitmap word.
+     *
+     * @param palantiri The palantiri to release.
+     */
+    @Override
+    public void release(Collection<Palantir> palantiri) {
+        long[] masks = new long[mAvailable.length()];
+
+        for (Palantir palantir : palantiri) {
+            int index = indexOf(palantir);
+            long mask = 1L << (index % BITS_PER_WORD);
+            if ((masks[index / BITS_PER_WORD] & mask) != 0) {
+                throw new IllegalStateException(
+                        "Palantir " + palantir.getId()
+                                + " was released more than once.");
+            }
+            masks[index / BITS_PER_WORD] |= mask;
+        }
+
+        for (int word = 0; word < masks.length; word++) {
+            if (masks[word] != 0) {
+                setBits(word, masks[word]);
+            }
+        }
+
+        signalWaiters();
+        dispatchPending();
+    }
+
+    /**
+     * Maps a palantir to its bitmap position.
+     *
+     * @param palantir A palantir managed by this manager.
+     * @return The bitmap position of the palantir.
+     */
+    private int indexOf(Palantir palantir) {
+        int index = (int) (palantir.getId() - mFirstId);
+        if (index < 0
+                || index >= mPalantiriArray.length
+                || mPalantiriArray[index] != palantir) {
+            throw new IllegalStateException(
+                    "Palantir " + palantir.getId()
+                            + " is not managed by this manager.");
+        }
+        return index;
+    }
+
+    /**
+     * Atomically sets the given bits of a bitmap word, none of
+     * which may already be set.
+     *
+     * @param word The bitmap word.
+     * @param mask The bits to set.
+     */
+    private void setBits(int word, long mask) {
+        // Set the bits using a CAS loop.
+        while (true) {
+            long bits = mAvailable.get(word);
+            if ((bits & mask) != 0) {
+                int index = word * BITS_PER_WORD
+                        + Long.numberOfTrailingZeros(bits & mask);
+                throw new IllegalStateException(
+                        "Palantir " + mPalantiriArray[index].getId()
+                                + " was released more than once.");
+            }
+            if (mAvailable.compareAndSet(word, bits, bits | mask)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Wakes the longest waiting being or, if any being is waiting for
+     * a batch of palantiri, all waiting beings.
+     */
+    private void signalWaiters() {
+        if (mBatchWaiters.get() > 0) {
+            mWaiters.forEach(LockSupport::unpark);
+        } else {
+            Thread waiter = mWaiters.peek();
+            if (waiter != null) {
+                LockSupport.unpark(waiter);
+            }
+        }
+    }
+
+    /**
+     * @return True since this manager implements {@link #acquireAsync}.
+     */
+    @Override
+    public boolean supportsAsyncAcquire() {
+        return true;
+    }
+
+    /**
+     * Claims available palantiri for pending futures until either
+     * runs out. A claimed palantir that no longer has a future to
+     * go to (because they were all cancelled) is returned to the
+     * bitmap.
+     */
+    private void dispatchPending() {
+        while (!mPending.isEmpty()) {
+            Palantir palantir = tryClaim();
+            if (palantir == null) {
+                return;
+            }
+
+            if (!handOff(palantir)) {
+                int index = indexOf(palantir);
+                setBits(index / BITS_PER_WORD, 1L << (index % BITS_PER_WORD));
+                signalWaiters();
+            }
+        }
+    }
+
+    /**
+     * Completes the oldest pending future with {@code palantir},
+     * skipping futures that have been cancelled. Any dependent
+     * actions attached without an executor run in the calling
+     * thread.
+     *
+     * @param palantir A claimed palantir.
+     * @return True if a future received the palantir, else false.
+     */
+    private boolean handOff(Palantir palantir) {
+        CompletableFuture<Palantir> future;
+        while ((future = mPending.poll()) != null) {
+            if (future.complete(palantir)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Completes all pending futures with a CancellationException.
+     */
+    private void cancelPending() {
+        CompletableFuture<Palantir> future;
+        while ((future = mPending.poll()) != null) {
+            future.completeExceptionally(
+                    new CancellationException("Palantiri manager was shutdown."));
+        }
+    }
+
+    /**
+     * Attempts to claim any available palantir without blocking.
+     * The scan starts at a random word to spread concurrent claims
+     * across the bitmap and picks the lowest set bit in each word.
+     *
+     * @return A claimed palantir or null if none are available.
+     */
+    private Palantir tryClaim() {
+        int words = mAvailable.length();
+        int start = words > 1 ? ThreadLocalRandom.current().nextInt(words) : 0;
+
+        for (int i = 0; i < words; i++) {
+            int word = (start + i) % words;
+            long bits;
+
+            // Keep trying this word until it is empty or a
+            // bit has been successfully claimed.
+            while ((bits = mAvailable.get(word)) != 0) {
+                int bit = Long.numberOfTrailingZeros(bits);
+                if (mAvailable.compareAndSet(word, bits, bits & ~(1L << bit))) {
+                    return mPalantiriArray[word * BITS_PER_WORD + bit];
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Attempts to claim {@code count} available palantiri without
+     * blocking. The lowest available bits of each word are claimed
+     * with a single compare-and-swap. If the words together don't
+     * have enough available bits the claimed bits are returned, so
+     * either all or none of the palantiri are claimed.
+     *
+     * @param count The number of palantiri to claim.
+     * @return The claimed palantiri or null if fewer than {@code
+     * count} are available.
+     */
+    private List<Palantir> tryClaim(int count) {
+        // Avoid claiming and then returning bits when there clearly
+        // aren't enough palantiri available.
+        if (availablePalantiri() < count) {
+            return null;
+        }
+
+        int words = mAvailable.length();
+        int start = words > 1 ? ThreadLocalRandom.current().nextInt(words) : 0;
+        long[] claimed = new long[words];
+        int remaining = count;
+
+        for (int i = 0; i < words && remaining > 0; i++) {
+            int word = (start + i) % words;
+            long bits;
+
+            while ((bits = mAvailable.get(word)) != 0) {
+                long mask = lowestBits(bits, remaining);
+                if (mAvailable.compareAndSet(word, bits, bits & ~mask)) {
+                    claimed[word] = mask;
+                    remaining -= Long.bitCount(mask);
+                    break;
+                }
+            }
+        }
+
+        if (remaining > 0) {
+            // Not enough palantiri were available, so give back the
+            // claimed bits and wake any being that missed them.
+            for (int word = 0; word < words; word++) {
+                if (claimed[word] != 0) {
+                    setBits(word, claimed[word]);
+                }
+            }
+            signalWaiters();
+            dispatchPending();
+            return null;
+        }
+
+        List<Palantir> palantiri = new ArrayList<>(count);
+        for (int word = 0; word < words; word++) {
+            for (long bits = claimed[word]; bits != 0; bits &= bits - 1) {
+                palantiri.add(mPalantiriArray[word * BITS_PER_WORD
+                        + Long.numberOfTrailingZeros(bits)]);
+            }
+        }
+        return palantiri;
+    }
+
+    /**
+     * @return A mask of (at most) the {@code count} lowest set
+     * bits of {@code bits}.
+     */
+    private static long lowestBits(long bits, int count) {
+        long mask = 0;
+        for (; count > 0 && bits != 0; count--) {
+            long lowest = bits & -bits;
+            mask |= lowest;
+            bits ^= lowest;
+        }
+        return mask;
+    }
+
+    /**
+     * @return {@code true} if any palantir is currently available.
+     */
+    private boolean hasAvailable() {
+        for (int word = 0; word < mAvailable.length(); word++) {
+            if (mAvailable.get(word) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return The number of currently available palantiri.
+     */
+    public int availablePalantiri() {
+        int count = 0;
+        for (int word = 0; word < mAvailable.length(); word++) {
+            count += Long.bitCount(mAvailable.get(word));
+        }
+        return count;
+    }
+
+    /**
+     * Called when the simulation is being shutdown to allow model
+     * components the opportunity to and release resources and to
+     * reset field values. Any parked beings are woken up and will
+     * throw a CancellationException and any pending futures are
+     * completed with a CancellationException.
+     */
+    @Override
+    public void shutdownNow() {
+        mShutdown = true;
+        mWaiters.forEach(LockSupport::unpark);
+        cancelPending();
+    }
+}
@@ -0,0 +1,167 @@
+package edu.vandy.simulator.managers.palantiri.concurrentMapFairSemaphore;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.AbstractQueuedSynchronizer;
+
+/**
+ * Implements a semaphore on top of the AbstractQueuedSynchronizer,
+ * whose state holds the number of available permits. Waiting threads
+ * are parked in the synchronizer's queue and a release wakes the
+ * first of them directly, without having to reacquire a monitor or
+ * lock as a Condition.signal() does.
+ * <p>
+ * A fair semaphore hands out permits in strict FIFO order. A barging
+ * semaphore lets an arriving thread take an available permit ahead
+ * of queued threads, which trades fairness for throughput.
+ */
+public class AqsSemaphore
+        implements FairSemaphore {
+    /**
+     * Debugging tag used by the Android logger.
+     */
+    private final static String TAG =
+            AqsSemaphore.class.getSimpleName();
+
+    /**
+     * The synchronizer that implements the semaphore.
+     */
+    private final Sync mSync;
+
+    /**
+     * Constructor initializes the fields.
+     *
+     * @param availablePermits The initial number of permits, which
+     *                         may be negative.
+     * @param fair             True for FIFO semantics, false to
+     *                         allow barging.
+     */
+    public AqsSemaphore(int availablePermits, boolean fair) {
+        mSync = new Sync(availablePermits, fair);
+    }
+
+    /**
+     * Acquire one permit from the semaphore in a manner that cannot
+     * be interrupted.
+     */
+    @Override
+    public void acquireUninterruptibly() {
+        mSync.acquireShared(1);
+    }
+
+    /**
+     * Acquire one permit from the semaphore in a manner that can be
+     * interrupted.
+     */
+    @Override
+    public void acquire() throws InterruptedException {
+        mSync.acquireSharedInterruptibly(1);
+    }
+
+    /**
+     * Acquire one permit from the semaphore if one becomes available
+     * within the given waiting time, in a manner that can be
+     * interrupted.
+     *
+     * @param timeout The maximum time to wait for a permit.
+     * @param unit    The time unit of the timeout argument.
+     * @return True if a permit was acquired and false if the
+     * waiting time elapsed first.
+     */
+    @Override
+    public boolean tryAcquire(long timeout, TimeUnit unit) throws InterruptedException {
+        return mSync.tryAcquireSharedNanos(1, unit.toNanos(timeout));
+    }
+
+    /**
+     * Return one permit to the semaphore.
+     */
+    @Override
+    public void release() {
+        mSync.releaseShared(1);
+    }
+
+    /**
+     * @return The number of available permits.
+     */
+    @Override
+    public int availablePermits() {
+        return mSync.getPermits();
+    }
+
+    /**
+     * @return True if this semaphore has FIFO semantics.
+     */
+    public boolean isFair() {
+        return mSync.mFair;
+    }
+
+    /**
+     * The synchronizer whose state is the number of permits.
+     */
+    private static class Sync
+            extends AbstractQueuedSynchronizer {
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * True if an arriving thread must queue behind any
+         * already waiting threads.
+         */
+        final boolean mFair;
+
+        /**
+         * Constructor initializes the fields.
+         */
+        Sync(int permits, boolean fair) {
+            setState(permits);
+            mFair = fair;
+        }
+
+        /**
+         * @return The number of available permits.
+         */
+        int getPermits() {
+            return getState();
+        }
+
+        /**
+         * Tries to take permits.
+         *
+         * @return A negative value on failure, otherwise the
+         * number of remaining permits.
+         */
+        @Override
+        protected int tryAcquireShared(int acquires) {
+            while (true) {
+                if (mFair && hasQueuedPredecessors()) {
+                    return -1;
+                }
+
+                int available = getState();
+                int remaining = available - acquires;
+                if (remaining < 0
+                        || compareAndSetState(available, remaining)) {
+                    return remaining;
+                }
+            }
+        }
+
+        /**
+         * Returns permits.
+         *
+         * @return Always true so that a waiting thread is woken.
+         */
+        @Override
+        protected boolean tryReleaseShared(int releases) {
+            while (true) {
+                int current = getState();
+                int next = current + releases;
+                if (next < current) {
+                    throw new IllegalStateException("Maximum permit count exceeded");
+                }
+                if (compareAndSetState(current, next)) {
+                    return true;
+                }
+            }
+        }
+    }
+}
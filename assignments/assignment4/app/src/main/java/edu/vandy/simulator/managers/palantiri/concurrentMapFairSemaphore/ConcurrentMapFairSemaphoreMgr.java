@@ -1,7 +1,5 @@
 package edu.vandy.simulator.managers.palantiri.concurrentMapFairSemaphore;
 
-import android.util.Log;
-
 import org.jetbrains.annotations.NotNull;
 
 import java.util.concurrent.CancellationException;
@@ -12,6 +10,7 @@ import java.util.stream.Collectors;
 import edu.vandy.simulator.managers.palantiri.Palantir;
 import edu.vandy.simulator.managers.palantiri.PalantiriManager;
 import edu.vandy.simulator.utils.Assignment;
+import edu.vandy.simulator.utils.Log;
 
 /**
  * Defines a mechanism that mediates concurrent access to a fixed
@@ -1,5 +1,8 @@
 package edu.vandy.simulator.managers.palantiri.concurrentMapFairSemaphore;
 
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
 /**
  * Defines an interface for a fair semaphore.
  */
@@ -16,6 +19,22 @@ public interface FairSemaphore {
      */
     void acquire() throws InterruptedException;
 
+    /**
+     * Acquire one permit from the semaphore if one becomes available
+     * within the given waiting time, in a manner that can be
+     * interrupted. Implementations that support timed acquisition
+     * override this method.
+     *
+     * @param timeout The maximum time to wait for a permit.
+     * @param unit    The time unit of the timeout argument.
+     * @return True if a permit was acquired and false if the
+     * waiting time elapsed first.
+     */
+    default boolean tryAcquire(long timeout, TimeUnit unit) throws InterruptedException {
+        throw new UnsupportedOperationException
+                (getClass().getSimpleName() + " does not support timed acquisition.");
+    }
+
     /**
      * Return one permit to the semaphore.
      */
@@ -25,5 +44,85 @@ public interface FairSemaphore {
      * @return The number of available permits.
      */
     int availablePermits();
-}
 
+    /**
+     * Creates FairSemaphores whose implementation can be selected
+     * (e.g., to compare implementations) without changing the code
+     * that uses them.
+     */
+    class Factory {
+        /**
+         * The implementation explicitly selected for all new
+         * semaphores, or null to use the assignment's default implementation.
+         */
+        private static volatile Type sType = null;
+
+        /**
+         * Disallow object creation.
+         */
+        private Factory() {
+        }
+
+        /**
+         * Selects the FairSemaphore implementation returned by later
+         * calls to {@link #newSemaphore}.
+         *
+         * @param type The implementation type or null to use the
+         *             assignment's default implementation.
+         */
+        public static void setType(Type type) {
+            sType = type;
+        }
+
+        /**
+         * @return The selected type, or null if the assignment's
+         * default implementation is used.
+         */
+        public static Type getType() {
+            return sType;
+        }
+
+        /**
+         * Creates a new FairSemaphore.
+         *
+         * @param permits             The initial number of permits.
+         * @param assignmentSemaphore Factory for the assignment's
+         *                            default implementation.
+         * @return A new semaphore of the selected type if one has been
+         * selected via {@link #setType}, otherwise a new semaphore
+         * created by the passed factory.
+         */
+        public static FairSemaphore newSemaphore(int permits,
+                                                 IntFunction<FairSemaphore> assignmentSemaphore) {
+            Type type = sType;
+            return type != null
+                    ? type.newSemaphore(permits)
+                    : assignmentSemaphore.apply(permits);
+        }
+
+        /**
+         * The FairSemaphore implementations that can be selected
+         * via {@link #setType}.
+         */
+        public enum Type {
+            MONITOR_OBJECT(FairSemaphoreMO::new),
+            CONDITION_OBJECT(FairSemaphoreCO::new),
+            LOCK_FREE(FairSemaphoreLF::new),
+            AQS_FAIR(permits -> new AqsSemaphore(permits, true)),
+            AQS_BARGING(permits -> new AqsSemaphore(permits, false));
+
+            private final IntFunction<FairSemaphore> mFactory;
+
+            Type(IntFunction<FairSemaphore> factory) {
+                mFactory = factory;
+            }
+
+            /**
+             * @return A new semaphore of this type.
+             */
+            public FairSemaphore newSemaphore(int permits) {
+                return mFactory.apply(permits);
+            }
+        }
+    }
+}
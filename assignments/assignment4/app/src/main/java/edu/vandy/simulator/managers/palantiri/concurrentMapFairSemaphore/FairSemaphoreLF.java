@@ -0,0 +1,366 @@
+package edu.vandy.simulator.managers.palantiri.concurrentMapFairSemaphore;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Implements a fair semaphore without a monitor lock using an atomic
+ * permit count and a Michael-Scott lock-free queue of waiters.
+ * <p>
+ * Permits only accumulate in the count while there are no waiters.
+ * Once a thread is queued, release() hands its permit directly to
+ * the first waiting thread instead of returning it to the count, so
+ * a newly arriving thread can never barge ahead of a queued one.
+ * The count is rechecked by the first waiter after it enqueues (and
+ * whenever it is woken) to cover a release that raced with the
+ * enqueue and saw an empty queue.
+ */
+public class FairSemaphoreLF
+        implements FairSemaphore {
+    /**
+     * Debugging tag used by the Android logger.
+     */
+    private final static String TAG =
+            FairSemaphoreLF.class.getSimpleName();
+
+    /**
+     * Waiter status values.
+     */
+    private static final int WAITING = 0;
+    private static final int GRANTED = 1;
+    private static final int CANCELLED = 2;
+
+    /**
+     * The number of available permits.
+     */
+    private final AtomicInteger mPermits;
+
+    /**
+     * The head of the wait queue, which is always a dummy node whose
+     * successor is the oldest waiter.
+     */
+    private final AtomicReference<Waiter> mHead;
+
+    /**
+     * The tail of the wait queue, which may lag behind the last node
+     * while an enqueue is in progress.
+     */
+    private final AtomicReference<Waiter> mTail;
+
+    /**
+     * Initialize the fields in the class.
+     */
+    public FairSemaphoreLF(int availablePermits) {
+        mPermits = new AtomicInteger(availablePermits);
+        Waiter dummy = new Waiter(null);
+        mHead = new AtomicReference<>(dummy);
+        mTail = new AtomicReference<>(dummy);
+    }
+
+    /**
+     * Acquire one permit from the semaphore in a manner that cannot
+     * be interrupted.  If an interrupt occurs while this method is
+     * running the interrupt flag is reset when the method returns.
+     */
+    @Override
+    public void acquireUninterruptibly() {
+        if (!tryToGetPermit()) {
+            try {
+                waitForPermit(false, false, 0);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException("Uninterruptible wait was interrupted");
+            }
+        }
+    }
+
+    /**
+     * Acquire one permit from the semaphore in a manner that can be
+     * interrupted.
+     */
+    @Override
+    public void acquire() throws InterruptedException {
+        // Bail out quickly if we've been interrupted.
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+
+            // Try to get a permit without blocking.
+        } else if (!tryToGetPermit()) {
+            // Block until a permit is available.
+            waitForPermit(true, false, 0);
+        }
+    }
+
+    /**
+     * Acquire one permit from the semaphore if one becomes available
+     * within the given waiting time, in a manner that can be
+     * interrupted.
+     *
+     * @param timeout The maximum time to wait for a permit.
+     * @param unit    The time unit of the timeout argument.
+     * @return True if a permit was acquired and false if the
+     * waiting time elapsed first.
+     */
+    @Override
+    public boolean tryAcquire(long timeout, TimeUnit unit) throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+
+        return tryToGetPermit()
+                || (timeout > 0
+                    && waitForPermit(true, true, System.nanoTime() + unit.toNanos(timeout)));
+    }
+
+    /**
+     * Handle the case where we can get a permit without blocking,
+     * which is only allowed if no other thread is waiting.
+     *
+     * @return Returns true if the permit was obtained, else false.
+     */
+    protected boolean tryToGetPermit() {
+        return firstWaiter() == null && takePermit();
+    }
+
+    /**
+     * Return one permit to the semaphore.
+     */
+    @Override
+    public void release() {
+        while (true) {
+            Waiter waiter = firstWaiter();
+
+            if (waiter == null) {
+                mPermits.incrementAndGet();
+
+                // A thread may have enqueued after the queue was
+                // found empty, but before the permit was added, so
+                // wake the first waiter to recheck the count.
+                signalFirstWaiter();
+                return;
+            }
+
+            // Hand the permit directly to the first waiter unless it
+            // has just given up, in which case try the next one.
+            if (waiter.casStatus(WAITING, GRANTED)) {
+                LockSupport.unpark(waiter.mThread);
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return The number of available permits.
+     */
+    @Override
+    public int availablePermits() {
+        return mPermits.get();
+    }
+
+    /**
+     * Enqueues the calling thread and blocks until a permit is
+     * handed to it or it takes one from the count when it is
+     * first in line, or until a timed wait elapses.
+     *
+     * @param interruptible True if the wait should be abandoned
+     *                      when the thread is interrupted.
+     * @param timed         True if the wait is bounded by the
+     *                      deadline.
+     * @param deadline      The System.nanoTime() deadline of a
+     *                      timed wait.
+     * @return True if a permit was acquired and false if a timed
+     * wait elapsed.
+     */
+    protected boolean waitForPermit(boolean interruptible, boolean timed, long deadline)
+            throws InterruptedException {
+        final Waiter waiter = enqueue();
+        boolean interrupted = false;
+
+        while (waiter.mStatus != GRANTED) {
+            if (firstWaiter() == waiter && takePermit()) {
+                if (!waiter.casStatus(WAITING, GRANTED)) {
+                    // A release granted this waiter directly after
+                    // the permit was taken, so give one back.
+                    release();
+                }
+
+                // Other permits may also have been added to the
+                // count while this waiter was queued.
+                signalFirstWaiter();
+                break;
+            }
+
+            if (!timed) {
+                LockSupport.park(this);
+            } else {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    if (waiter.casStatus(WAITING, CANCELLED)) {
+                        // The timed out waiter is skipped by release().
+                        return false;
+                    }
+                    // A permit was granted just as the wait elapsed.
+                    break;
+                }
+                LockSupport.parkNanos(this, remaining);
+            }
+
+            if (Thread.interrupted()) {
+                if (!interruptible) {
+                    interrupted = true;
+                } else if (waiter.casStatus(WAITING, CANCELLED)) {
+                    // The cancelled waiter is skipped by release().
+                    throw new InterruptedException();
+                } else {
+                    // The permit was granted concurrently, so pass
+                    // it on before reporting the interrupt.
+                    release();
+                    throw new InterruptedException();
+                }
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return true;
+    }
+
+    /**
+     * Atomically takes a permit from the count if one is available.
+     *
+     * @return True if a permit was taken, else false.
+     */
+    private boolean takePermit() {
+        while (true) {
+            int permits = mPermits.get();
+            if (permits <= 0) {
+                return false;
+            } else if (mPermits.compareAndSet(permits, permits - 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Wakes the first waiter if there are permits in the count so
+     * that it can take one.
+     */
+    private void signalFirstWaiter() {
+        if (mPermits.get() > 0) {
+            Waiter waiter = firstWaiter();
+            if (waiter != null) {
+                LockSupport.unpark(waiter.mThread);
+            }
+        }
+    }
+
+    /**
+     * Appends a new waiter for the calling thread to the tail of the
+     * wait queue using the Michael-Scott enqueue algorithm.
+     *
+     * @return The new waiter.
+     */
+    private Waiter enqueue() {
+        final Waiter waiter = new Waiter(Thread.currentThread());
+
+        while (true) {
+            Waiter tail = mTail.get();
+            Waiter next = tail.mNext;
+
+            if (tail != mTail.get()) {
+                continue;
+            }
+
+            if (next == null) {
+                if (tail.casNext(null, waiter)) {
+                    // Swing the tail, which may already have been
+                    // done by another thread.
+                    mTail.compareAndSet(tail, waiter);
+                    return waiter;
+                }
+            } else {
+                // Help a concurrent enqueue finish.
+                mTail.compareAndSet(tail, next);
+            }
+        }
+    }
+
+    /**
+     * Returns the oldest waiter that is still waiting, dequeuing any
+     * granted or cancelled waiters in front of it.
+     *
+     * @return The first waiting waiter or null if there is none.
+     */
+    private Waiter firstWaiter() {
+        while (true) {
+            Waiter head = mHead.get();
+            Waiter next = head.mNext;
+
+            if (next == null) {
+                return null;
+            } else if (next.mStatus == WAITING) {
+                return next;
+            }
+
+            // The finished waiter becomes the new dummy head.
+            mHead.compareAndSet(head, next);
+        }
+    }
+
+    /**
+     * A node in the wait queue.
+     */
+    static class Waiter {
+        /**
+         * Atomic updater for the status field.
+         */
+        private static final AtomicIntegerFieldUpdater<Waiter> sStatus =
+                AtomicIntegerFieldUpdater.newUpdater(Waiter.class, "mStatus");
+
+        /**
+         * Atomic updater for the next field.
+         */
+        private static final AtomicReferenceFieldUpdater<Waiter, Waiter> sNext =
+                AtomicReferenceFieldUpdater.newUpdater(Waiter.class, Waiter.class, "mNext");
+
+        /**
+         * The waiting thread.
+         */
+        final Thread mThread;
+
+        /**
+         * The WAITING, GRANTED, or CANCELLED status of this waiter.
+         */
+        volatile int mStatus = WAITING;
+
+        /**
+         * The next waiter in the queue.
+         */
+        volatile Waiter mNext;
+
+        /**
+         * Constructor initializes the fields.
+         */
+        Waiter(Thread thread) {
+            mThread = thread;
+        }
+
+        /**
+         * Atomically sets the status if it has the expected value.
+         */
+        boolean casStatus(int expect, int update) {
+            return sStatus.compareAndSet(this, expect, update);
+        }
+
+        /**
+         * Atomically sets the next waiter if it has the expected value.
+         */
+        boolean casNext(Waiter expect, Waiter update) {
+            return sNext.compareAndSet(this, expect, update);
+        }
+    }
+}
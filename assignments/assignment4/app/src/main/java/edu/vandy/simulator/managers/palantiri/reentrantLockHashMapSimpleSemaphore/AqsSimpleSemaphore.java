@@ -0,0 +1,60 @@
+package edu.vandy.simulator.managers.palantiri.reentrantLockHashMapSimpleSemaphore;
+
+import edu.vandy.simulator.managers.palantiri.concurrentMapFairSemaphore.AqsSemaphore;
+
+/**
+ * A SimpleSemaphore backed by an AbstractQueuedSynchronizer (via an
+ * {@link AqsSemaphore}) rather than a ReentrantLock and Condition.
+ */
+public class AqsSimpleSemaphore
+        extends SimpleSemaphore {
+    /**
+     * The semaphore that all operations are forwarded to.
+     */
+    private final AqsSemaphore mSemaphore;
+
+    /**
+     * Constructor initializes the fields.
+     *
+     * @param permits The initial number of permits.
+     * @param fair    True for FIFO semantics, false to allow
+     *                barging.
+     */
+    public AqsSimpleSemaphore(int permits, boolean fair) {
+        mSemaphore = new AqsSemaphore(permits, fair);
+    }
+
+    /**
+     * Acquire one permit from the semaphore in a manner that can be
+     * interrupted.
+     */
+    @Override
+    public void acquire() throws InterruptedException {
+        mSemaphore.acquire();
+    }
+
+    /**
+     * Acquire one permit from the semaphore in a manner that cannot
+     * be interrupted.
+     */
+    @Override
+    public void acquireUninterruptibly() {
+        mSemaphore.acquireUninterruptibly();
+    }
+
+    /**
+     * Return one permit to the semaphore.
+     */
+    @Override
+    public void release() {
+        mSemaphore.release();
+    }
+
+    /**
+     * Returns the current number of permits.
+     */
+    @Override
+    protected int availablePermits() {
+        return mSemaphore.availablePermits();
+    }
+}
@@ -1,7 +1,5 @@
 package edu.vandy.simulator.managers.palantiri.reentrantLockHashMapSimpleSemaphore;
 
-import android.util.Log;
-
 import org.jetbrains.annotations.NotNull;
 
 import java.util.HashMap;
@@ -14,6 +12,7 @@ import java.util.function.Function;
 import edu.vandy.simulator.managers.palantiri.Palantir;
 import edu.vandy.simulator.managers.palantiri.PalantiriManager;
 import edu.vandy.simulator.utils.Assignment;
+import edu.vandy.simulator.utils.Log;
 
 import static java.util.stream.Collectors.toMap;
 
@@ -3,6 +3,7 @@ package edu.vandy.simulator.managers.palantiri.reentrantLockHashMapSimpleSemapho
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntFunction;
 
 /**
  * This class defines a counting semaphore with "fair" semantics that
@@ -76,4 +77,80 @@ public class SimpleSemaphore {
         // appropriate field.
         return 0;
     }
+
+    /**
+     * Creates SimpleSemaphores whose implementation can be selected
+     * (e.g., to compare implementations) without changing the code
+     * that uses them.
+     */
+    public static class Factory {
+        /**
+         * The implementation explicitly selected for all new
+         * semaphores, or null to use the assignment's SimpleSemaphore.
+         */
+        private static volatile Type sType = null;
+
+        /**
+         * Disallow object creation.
+         */
+        private Factory() {
+        }
+
+        /**
+         * Selects the SimpleSemaphore implementation returned by
+         * later calls to {@link #newSemaphore}.
+         *
+         * @param type The implementation type or null to use the
+         *             assignment's SimpleSemaphore.
+         */
+        public static void setType(Type type) {
+            sType = type;
+        }
+
+        /**
+         * @return The selected type, or null if the assignment's
+         * SimpleSemaphore is used.
+         */
+        public static Type getType() {
+            return sType;
+        }
+
+        /**
+         * Creates a new SimpleSemaphore.
+         *
+         * @param permits The initial number of permits.
+         * @return A new semaphore of the selected type if one has been
+         * selected via {@link #setType}, otherwise a new assignment
+         * SimpleSemaphore.
+         */
+        public static SimpleSemaphore newSemaphore(int permits) {
+            Type type = sType;
+            return type != null
+                    ? type.newSemaphore(permits)
+                    : new SimpleSemaphore(permits);
+        }
+
+        /**
+         * The SimpleSemaphore implementations that can be selected
+         * via {@link #setType}.
+         */
+        public enum Type {
+            REENTRANT_LOCK(SimpleSemaphore::new),
+            AQS_FAIR(permits -> new AqsSimpleSemaphore(permits, true)),
+            AQS_BARGING(permits -> new AqsSimpleSemaphore(permits, false));
+
+            private final IntFunction<SimpleSemaphore> mFactory;
+
+            Type(IntFunction<SimpleSemaphore> factory) {
+                mFactory = factory;
+            }
+
+            /**
+             * @return A new semaphore of this type.
+             */
+            public SimpleSemaphore newSemaphore(int permits) {
+                return mFactory.apply(permits);
+            }
+        }
+    }
 }
@@ -0,0 +1,492 @@
+package edu.vandy.simulator.managers.palantiri.shardedPool;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import edu.vandy.simulator.managers.palantiri.Palantir;
+import edu.vandy.simulator.managers.palantiri.PalantiriManager;
+
+/**
+ * Defines a mechanism that mediates concurrent access to a fixed
+ * number of available Palantiri by sharding them into one lock-free
+ * free list per processor. Each thread has a home shard chosen by
+ * hashing its id. A being takes the most recently released palantir
+ * from its home shard, and only steals the least recently released
+ * palantir from another shard when its home shard is empty. Released
+ * palantiri go back to the releasing thread's home shard, so with
+ * many more palantiri than processors most acquire and release
+ * calls touch a shard that no other processor is using.
+ * <p>
+ * A non-fair Semaphore with one permit per palantir keeps the
+ * blocking semantics of acquire(): a being that holds a permit is
+ * guaranteed to find a palantir in one of the shards. This
+ * implementation is not fair. A palantir released while futures
+ * returned by {@link #acquireAsync} are waiting is handed to the
+ * oldest of them without going back to a shard.
+ */
+public class ShardedPoolMgr
+        extends PalantiriManager {
+    /**
+     * Debugging tag used by the logger.
+     */
+    protected final static String TAG =
+            ShardedPoolMgr.class.getSimpleName();
+
+    /**
+     * The free lists of available palantiri. The length is a power
+     * of two so that a home shard can be chosen with a mask.
+     */
+    private ConcurrentLinkedDeque<Palantir>[] mShards;
+
+    /**
+     * The mask used to map a thread hash to a shard index.
+     */
+    private int mShardMask;
+
+    /**
+     * Counts the available palantiri and blocks beings when there
+     * are none.
+     */
+    private Semaphore mAvailablePalantiri;
+
+    /**
+     * The palantiri indexed by their position.
+     */
+    private Palantir[] mPalantiriArray;
+
+    /**
+     * The id of the first palantir used to map a palantir
+     * back to its position on release.
+     */
+    private long mFirstId;
+
+    /**
+     * Set to 1 at a palantir's position while it is acquired,
+     * which catches palantiri that are released twice.
+     */
+    private AtomicIntegerArray mAcquired;
+
+    /**
+     * Futures returned by {@link #acquireAsync} that are waiting for
+     * a palantir, in the order they were requested.
+     */
+    private final Queue<CompletableFuture<Palantir>> mPending =
+            new ConcurrentLinkedQueue<>();
+
+    /**
+     * Flag set by {@link #shutdownNow} to cancel pending futures.
+     */
+    private volatile boolean mShutdown = false;
+
+    /**
+     * Called by super class to build the Palantiri model.
+     * Note that this method is only called when the number
+     * of palantiri is changed from the last simulation run.
+     */
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void buildModel() {
+        int palantiriCount = getPalantirCount();
+
+        // Index the palantiri by their position.
+        mPalantiriArray = getPalantiri().toArray(new Palantir[0]);
+        mFirstId = palantiriCount > 0 ? mPalantiriArray[0].getId() : 0;
+        mAcquired = new AtomicIntegerArray(palantiriCount);
+
+        // Use one shard per processor, rounded down to a power of two,
+        // but never more shards than there are palantiri.
+        int shardCount = Integer.highestOneBit(
+                Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(),
+                                     palantiriCount)));
+        mShards = new ConcurrentLinkedDeque[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            mShards[i] = new ConcurrentLinkedDeque<>();
+        }
+        mShardMask = shardCount - 1;
+
+        fillShards();
+    }
+
+    /**
+     * Resets the fields to their initial values. This method is
+     * called at the end of every simulation run so that the manager
+     * will be ready for the next simulation run.
+     */
+    @Override
+    public void reset() {
+        super.reset();
+
+        // Make all palantiri available again.
+        fillShards();
+
+        mPending.clear();
+        mShutdown = false;
+    }
+
+    /**
+     * Deals the palantiri round robin into the shards, marks them all
+     * as available, and creates a semaphore with one permit for each
+     * of them.
+     */
+    private void fillShards() {
+        for (ConcurrentLinkedDeque<Palantir> shard : mShards) {
+            shard.clear();
+        }
+
+        for (int i = 0; i < mPalantiriArray.length; i++) {
+            mShards[i & mShardMask].addLast(mPalantiriArray[i]);
+            mAcquired.set(i, 0);
+        }
+
+        mAvailablePalantiri = new Semaphore(mPalantiriArray.length);
+    }
+
+    /**
+     * Get the next available Palantir from the resource pool,
+     * blocking until one is available.
+     *
+     * @return The first available Palantir.
+     */
+    @NotNull
+    @Override
+    public Palantir acquire() throws CancellationException, InterruptedException {
+        mAvailablePalantiri.acquire();
+        return claim();
+    }
+
+    /**
+     * Get the next available Palantir from the resource pool,
+     * blocking until one is available or the timeout elapses.
+     *
+     * @return The first available Palantir or null if the timeout
+     * elapsed.
+     */
+    @Override
+    public Palantir tryAcquire(long timeout, TimeUnit unit)
+            throws CancellationException, InterruptedException {
+        if (!mAvailablePalantiri.tryAcquire(timeout, unit)) {
+            return null;
+        }
+        return claim();
+    }
+
+    /**
+     * Get the next available Palantir from the resource pool without
+     * blocking. If none is available, the returned future is queued
+     * and completed by the thread that next releases a palantir.
+     *
+     * @return A future that completes with the acquired Palantir.
+     */
+    @NotNull
+    @Override
+    public CompletableFuture<Palantir> acquireAsync() {
+        // Only take the fast path if no earlier request is queued
+        // so that pending futures are served in FIFO order.
+        if (mPending.isEmpty() && mAvailablePalantiri.tryAcquire()) {
+            return CompletableFuture.completedFuture(claim());
+        }
+
+        CompletableFuture<Palantir> future = new CompletableFuture<>();
+
+        // Enqueue before re-checking the permits so that a concurrent
+        // release either sees this future or its permit is seen here.
+        mPending.add(future);
+        dispatchPending();
+
+        // Don't leave the future behind if shutdownNow() has
+        // already drained the pending queue.
+        if (mShutdown) {
+            cancelPending();
+        }
+
+        return future;
+    }
+
+    /**
+     * @return True since this manager implements {@link #acquireAsync}.
+     */
+    @Override
+    public boolean supportsAsyncAcquire() {
+        return true;
+    }
+
+    /**
+     * Get {@code count} palantiri from the resource pool, blocking
+     * until that many permits are available at once.
+     *
+     * @param count The number of Palantiri to acquire.
+     * @return The acquired Palantiri.
+     */
+    @NotNull
+    @Override
+    public List<Palantir> acquire(int count)
+            throws CancellationException, InterruptedException {
+        mAvailablePalantiri.acquire(count);
+        return claim(count);
+    }
+
+    /**
+     * Get {@code count} palantiri from the resource pool without
+     * blocking. Either all or none of the Palantiri are acquired.
+     *
+     * @param count The number of Palantiri to acquire.
+     * @return The acquired Palantiri or an empty list if fewer than
+     * {@code count} Palantiri are currently available.
+     */
+    @NotNull
+    @Override
+    public List<Palantir> tryAcquire(int count) {
+        if (!mAvailablePalantiri.tryAcquire(count)) {
+            return Collections.emptyList();
+        }
+        return claim(count);
+    }
+
+    /**
+     * Claims {@code count} palantiri for which the caller already
+     * holds permits.
+     *
+     * @param count The number of Palantiri to claim.
+     * @return The claimed Palantiri.
+     */
+    private List<Palantir> claim(int count) {
+        List<Palantir> palantiri = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            palantiri.add(claim());
+        }
+        return palantiri;
+    }
+
+    /**
+     * Takes a palantir for which the caller already holds a permit
+     * and marks it as acquired.
+     *
+     * @return The claimed palantir.
+     */
+    private Palantir claim() {
+        Palantir palantir = take();
+        if (!mAcquired.compareAndSet(indexOf(palantir), 0, 1)) {
+            throw new IllegalStateException(
+                    "Palantir " + palantir.getId()
+                            + " was free and acquired at the same time.");
+        }
+        return palantir;
+    }
+
+    /**
+     * Takes a palantir from the calling thread's home shard, or
+     * steals one from another shard if the home shard is empty. The
+     * caller must hold a permit, so a palantir is always found,
+     * although a scan may need to be repeated if palantiri move
+     * between shards while it runs.
+     *
+     * @return The palantir taken from a shard.
+     */
+    private Palantir take() {
+        int home = homeShard();
+
+        while (true) {
+            Palantir palantir = mShards[home].pollFirst();
+
+            // Steal the least recently released palantir from the
+            // other shards, starting with the next one.
+            for (int i = 1; palantir == null && i < mShards.length; i++) {
+                palantir = mShards[(home + i) & mShardMask].pollLast();
+            }
+
+            if (palantir != null) {
+                return palantir;
+            }
+
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Returns the designated {@code palantir} to the releasing
+     * thread's home shard so it's available for other threads to
+     * use. If a future is waiting for a palantir it's handed the
+     * palantir directly instead.
+     */
+    @Override
+    public void release(final Palantir palantir) {
+        // Do a simple sanity check!
+        if (palantir != null) {
+            markReleased(palantir);
+
+            if (!mPending.isEmpty() && handOff(palantir)) {
+                return;
+            }
+
+            // Return the palantir before its permit so that a being
+            // that gets the permit always finds a palantir.
+            mShards[homeShard()].addFirst(palantir);
+            mAvailablePalantiri.release();
+
+            // A future may have been queued after the check above.
+            dispatchPending();
+        }
+    }
+
+    /**
+     * Returns the designated {@code palantiri} to the releasing
+     * thread's home shard and then returns all of their permits with
+     * a single semaphore update. If any of the palantiri was not
+     * acquired, none of them are released.
+     *
+     * @param palantiri The palantiri to release.
+     */
+    @Override
+    public void release(Collection<Palantir> palantiri) {
+        List<Palantir> released = new ArrayList<>(palantiri.size());
+        try {
+            for (Palantir palantir : palantiri) {
+                if (palantir != null) {
+                    markReleased(palantir);
+                    released.add(palantir);
+                }
+            }
+        } catch (IllegalStateException e) {
+            // Mark the palantiri that were already marked as
+            // released as acquired again.
+            released.forEach(palantir -> mAcquired.set(indexOf(palantir), 1));
+            throw e;
+        }
+
+        // Return the palantiri before their permits so that a being
+        // that gets a permit always finds a palantir.
+        ConcurrentLinkedDeque<Palantir> shard = mShards[homeShard()];
+        released.forEach(shard::addFirst);
+        mAvailablePalantiri.release(released.size());
+
+        dispatchPending();
+    }
+
+    /**
+     * Takes available palantiri from the shards for pending futures
+     * until either runs out. A palantir that no longer has a future
+     * to go to (because they were all cancelled) is put back.
+     */
+    private void dispatchPending() {
+        while (!mPending.isEmpty() && mAvailablePalantiri.tryAcquire()) {
+            Palantir palantir = take();
+            if (!handOff(palantir)) {
+                mShards[homeShard()].addFirst(palantir);
+                mAvailablePalantiri.release();
+            }
+        }
+    }
+
+    /**
+     * Completes the oldest pending future with a palantir that is
+     * neither acquired nor in a shard, skipping futures that have
+     * been cancelled. Any dependent actions attached without an
+     * executor run in the calling thread.
+     *
+     * @param palantir The palantir to hand off.
+     * @return True if a future received the palantir, else false.
+     */
+    private boolean handOff(Palantir palantir) {
+        int index = indexOf(palantir);
+        CompletableFuture<Palantir> future;
+        while ((future = mPending.poll()) != null) {
+            // Mark the palantir as acquired first since a dependent
+            // action of the future may release it right away.
+            mAcquired.set(index, 1);
+            if (future.complete(palantir)) {
+                return true;
+            }
+            mAcquired.set(index, 0);
+        }
+        return false;
+    }
+
+    /**
+     * Completes all pending futures with a CancellationException.
+     */
+    private void cancelPending() {
+        CompletableFuture<Palantir> future;
+        while ((future = mPending.poll()) != null) {
+            future.completeExceptionally(
+                    new CancellationException("Palantiri manager was shutdown."));
+        }
+    }
+
+    /**
+     * Marks an acquired palantir as released.
+     *
+     * @param palantir The palantir to mark.
+     * @throws IllegalStateException Thrown if the palantir was not
+     *                               acquired.
+     */
+    private void markReleased(Palantir palantir) {
+        if (!mAcquired.compareAndSet(indexOf(palantir), 1, 0)) {
+            throw new IllegalStateException(
+                    "Palantir " + palantir.getId() + " was not acquired.");
+        }
+    }
+
+    /**
+     * @return The index of the calling thread's home shard.
+     */
+    private int homeShard() {
+        long hash = Thread.currentThread().getId() * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 32) & mShardMask;
+    }
+
+    /**
+     * Maps a palantir to its position.
+     *
+     * @param palantir A palantir managed by this manager.
+     * @return The position of the palantir.
+     */
+    private int indexOf(Palantir palantir) {
+        int index = (int) (palantir.getId() - mFirstId);
+        if (index < 0
+                || index >= mPalantiriArray.length
+                || mPalantiriArray[index] != palantir) {
+            throw new IllegalStateException(
+                    "Palantir " + palantir.getId()
+                            + " is not managed by this manager.");
+        }
+        return index;
+    }
+
+    /**
+     * @return The number of currently available palantiri.
+     */
+    public int availablePalantiri() {
+        return mAvailablePalantiri.availablePermits();
+    }
+
+    /**
+     * @return The number of shards.
+     */
+    int getShardCount() {
+        return mShards.length;
+    }
+
+    /**
+     * Called when the simulation is being shutdown to allow model
+     * components the opportunity to and release resources and to
+     * reset field values. The Beings will have already have been
+     * shutdown by the base class before calling this method.
+     */
+    @Override
+    public void shutdownNow() {
+        mShutdown = true;
+        cancelPending();
+    }
+}
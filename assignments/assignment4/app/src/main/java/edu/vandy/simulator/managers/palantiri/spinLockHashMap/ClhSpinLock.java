@@ -0,0 +1,264 @@
+package edu.vandy.simulator.managers.palantiri.spinLockHashMap;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * A CLH queue spin lock with non-recursive semantics that supports
+ * timeouts and cancellation. Each thread appends its own node to an
+ * implicit queue and waits on the status of its predecessor's node,
+ * so waiters never spin on a shared cache line.
+ * <p>
+ * Like AbstractQueuedSynchronizer, a waiter that is cancelled or
+ * times out simply marks its node as cancelled and leaves. Its
+ * successor splices it out of the queue by skipping back to the
+ * cancelled node's own predecessor. Since a cancelled waiter never
+ * has to coordinate with its neighbours, giving up is wait-free.
+ * <p>
+ * A waiter spins, backs off, and then parks until its predecessor is
+ * released or cancelled as decided by a {@link SpinPolicy}.
+ */
+class ClhSpinLock
+        implements TimedCancellableLock {
+    /**
+     * Node status values.
+     */
+    private static final int WAITING = 0;
+    private static final int RELEASED = 1;
+    private static final int CANCELLED = 2;
+
+    /**
+     * The last node in the queue. Initially a released node
+     * so that the first thread acquires the lock immediately.
+     */
+    private final AtomicReference<Node> mTail;
+
+    /**
+     * Decides how long a waiter spins, backs off, and parks, and
+     * adapts to the observed lock hold time.
+     */
+    private final SpinPolicy mSpinPolicy = new SpinPolicy();
+
+    /**
+     * The node of the thread that currently holds the lock. Only
+     * read and written by the lock holder.
+     */
+    private Node mHolder;
+
+    /**
+     * Constructor initializes the queue.
+     */
+    ClhSpinLock() {
+        Node node = new Node();
+        node.mStatus = RELEASED;
+        mTail = new AtomicReference<>(node);
+    }
+
+    /**
+     * Acquire the lock only if it is free at the time of invocation.
+     * Acquire the lock if it is available and returns immediately
+     * with the value true.  If the lock is not available then this
+     * method will return immediately with the value false.
+     */
+    @Override
+    public boolean tryLock() {
+        Node tail = mTail.get();
+
+        // Look past any cancelled waiters at the end of the queue.
+        Node pred = tail;
+        while (pred.mStatus == CANCELLED) {
+            pred = pred.mPrev;
+        }
+
+        if (pred.mStatus == RELEASED) {
+            Node node = new Node();
+            if (mTail.compareAndSet(tail, node)) {
+                mHolder = node;
+                mSpinPolicy.acquired();
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Acquire the lock. If the lock is not available then the current
+     * thread waits on its predecessor's queue node until the
+     * predecessor releases the lock.
+     *
+     * @param isCancelled Supplier that is called to see if the attempt
+     *                    to lock should be abandoned due to a pending
+     *                    shutdown operation.
+     * @throws CancellationException Thrown only if a pending shutdown
+     *                               operation is has been detected by calling the isCancelled supplier.
+     */
+    @Override
+    public void lock(Supplier<Boolean> isCancelled)
+            throws CancellationException {
+        acquire(0, isCancelled);
+    }
+
+    /**
+     * Acquire the lock if it becomes available within the specified
+     * waiting time.
+     *
+     * @param timeout     The maximum time to wait for the lock.
+     * @param unit        The time unit of the timeout argument.
+     * @param isCancelled Supplier that is called to see if the attempt
+     *                    to lock should be abandoned due to a pending
+     *                    shutdown operation.
+     * @return {@code true} if the lock was acquired and {@code false}
+     * if the waiting time elapsed before the lock was acquired.
+     * @throws CancellationException Thrown only if a pending shutdown
+     *                               operation is has been detected by calling the isCancelled supplier.
+     */
+    @Override
+    public boolean tryLock(long timeout, TimeUnit unit, Supplier<Boolean> isCancelled)
+            throws CancellationException {
+        if (timeout <= 0) {
+            return tryLock();
+        }
+
+        // A deadline of 0 means "no deadline", so avoid it.
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        return acquire(deadline == 0 ? 1 : deadline, isCancelled);
+    }
+
+    /**
+     * Release the lock.  Throws IllegalMonitorStateException if
+     * the calling thread doesn't own the lock.
+     */
+    @Override
+    public void unlock() {
+        Node node = mHolder;
+        if (node == null || node.mThread != Thread.currentThread()) {
+            throw new IllegalMonitorStateException("Unlock called by non-owner thread.");
+        }
+
+        mHolder = null;
+        mSpinPolicy.released();
+        setStatus(node, RELEASED);
+    }
+
+    /**
+     * Enqueues a node for the calling thread and waits until the
+     * lock is acquired, the deadline passes, or the attempt is
+     * cancelled.
+     *
+     * @param deadline    The System.nanoTime() deadline or 0
+     *                    to wait indefinitely.
+     * @param isCancelled Supplier that is called to see if the
+     *                    attempt to lock should be abandoned.
+     * @return {@code true} if the lock was acquired and {@code false}
+     * if the deadline passed.
+     */
+    private boolean acquire(long deadline, Supplier<Boolean> isCancelled) {
+        Node node = new Node();
+        Node pred = mTail.getAndSet(node);
+        node.mPrev = pred;
+
+        for (int step = 0; ; ) {
+            int status = pred.mStatus;
+
+            if (status == RELEASED) {
+                // The predecessor is no longer needed.
+                node.mPrev = null;
+                mHolder = node;
+                mSpinPolicy.acquired();
+                return true;
+            }
+
+            if (status == CANCELLED) {
+                // Splice out the cancelled predecessor.
+                pred = pred.mPrev;
+                node.mPrev = pred;
+                continue;
+            }
+
+            if (isCancelled.get()) {
+                setStatus(node, CANCELLED);
+                throw new CancellationException("Canceled while waiting for lock.");
+            }
+
+            long remaining = Long.MAX_VALUE;
+            if (deadline != 0) {
+                remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    setStatus(node, CANCELLED);
+                    return false;
+                }
+            }
+
+            // Register as the predecessor's waiter before rechecking
+            // its status so that its release either sees this
+            // thread or is seen here.
+            if (mSpinPolicy.parks(step)) {
+                pred.mWaiter = Thread.currentThread();
+            }
+            if (pred.mStatus == WAITING) {
+                step = mSpinPolicy.pause(step, remaining);
+            }
+        }
+    }
+
+    /**
+     * Sets the final status of a node and wakes its successor if
+     * the successor is parked.
+     */
+    private static void setStatus(Node node, int status) {
+        node.mStatus = status;
+        Thread waiter = node.mWaiter;
+        if (waiter != null) {
+            LockSupport.unpark(waiter);
+        }
+    }
+
+    /**
+     * Padding placed before the hot node fields.
+     */
+    @SuppressWarnings("unused")
+    private static class NodeLeftPad {
+        long p01, p02, p03, p04, p05, p06, p07;
+    }
+
+    /**
+     * The hot node fields.
+     */
+    private static class NodeFields extends NodeLeftPad {
+        /**
+         * WAITING while the owning thread waits for or holds the
+         * lock, then RELEASED or CANCELLED. The successor spins on
+         * this field.
+         */
+        volatile int mStatus = WAITING;
+
+        /**
+         * The predecessor node. Only written by the owning thread
+         * until its status is no longer WAITING.
+         */
+        volatile Node mPrev;
+
+        /**
+         * The successor's thread if the successor may be parked.
+         */
+        volatile Thread mWaiter;
+
+        /**
+         * The thread that created this node.
+         */
+        final Thread mThread = Thread.currentThread();
+    }
+
+    /**
+     * A queue node padded on both sides so that the status
+     * fields of different nodes never share a cache line.
+     */
+    @SuppressWarnings("unused")
+    private static class Node extends NodeFields {
+        long p11, p12, p13, p14, p15, p16, p17;
+    }
+}
@@ -0,0 +1,22 @@
+package edu.vandy.simulator.managers.palantiri.spinLockHashMap;
+
+/**
+ * Thrown by a palantiri manager that gives up waiting for its lock
+ * because the manager's lock timeout elapsed. Unlike the
+ * CancellationException thrown on shutdown, this reports that the
+ * manager is overloaded, so the caller can shed this one request and
+ * keep running.
+ */
+public class LockTimeoutException
+        extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructor initializes the message.
+     *
+     * @param timeout The lock timeout in milliseconds.
+     */
+    LockTimeoutException(long timeout) {
+        super("Timed out after " + timeout + " ms waiting for lock.");
+    }
+}
@@ -0,0 +1,227 @@
+package edu.vandy.simulator.managers.palantiri.spinLockHashMap;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * An MCS queue spin lock with non-recursive semantics. Each waiting
+ * thread appends its own node to an implicit queue and spins only on
+ * a field of that node, which is padded to occupy its own cache
+ * line. A release hands the lock directly to the next node, so only
+ * one waiter's cache line is invalidated per release no matter how
+ * many threads are waiting.
+ * <p>
+ * A waiter that is cancelled marks its node as abandoned and leaves
+ * the node in the queue; the releasing thread skips over abandoned
+ * nodes when passing on the lock.
+ * <p>
+ * A waiter spins, backs off, and then parks until it is handed the
+ * lock as decided by a {@link SpinPolicy}, so that when there are
+ * more waiters than processors the spinners don't keep the next
+ * owner from being scheduled.
+ */
+class McsSpinLock
+        implements CancellableLock {
+    /**
+     * Node status values.
+     */
+    private static final int WAITING = 0;
+    private static final int GRANTED = 1;
+    private static final int ABANDONED = 2;
+
+    /**
+     * The last node in the queue or null if the lock is free.
+     */
+    private final AtomicReference<Node> mTail = new AtomicReference<>();
+
+    /**
+     * Decides how long a waiter spins, backs off, and parks, and
+     * adapts to the observed lock hold time.
+     */
+    private final SpinPolicy mSpinPolicy = new SpinPolicy();
+
+    /**
+     * The node of the thread that currently holds the lock. Only
+     * read and written by the lock holder.
+     */
+    private Node mHolder;
+
+    /**
+     * Acquire the lock only if it is free at the time of invocation.
+     * Acquire the lock if it is available and returns immediately
+     * with the value true.  If the lock is not available then this
+     * method will return immediately with the value false.
+     */
+    @Override
+    public boolean tryLock() {
+        Node node = new Node();
+        if (mTail.get() == null && mTail.compareAndSet(null, node)) {
+            mHolder = node;
+            mSpinPolicy.acquired();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Acquire the lock. If the lock is not available then the current
+     * thread spins on its own queue node until the lock is handed to
+     * it by its predecessor.
+     *
+     * @param isCancelled Supplier that is called to see if the attempt
+     *                    to lock should be abandoned due to a pending
+     *                    shutdown operation.
+     * @throws CancellationException Thrown only if a pending shutdown
+     *                               operation is has been detected by calling the isCancelled supplier.
+     */
+    @Override
+    public void lock(Supplier<Boolean> isCancelled)
+            throws CancellationException {
+        // A new node is used for every acquisition since an
+        // abandoned node may still be referenced by the queue.
+        Node node = new Node();
+        Node pred = mTail.getAndSet(node);
+
+        if (pred != null) {
+            pred.mNext = node;
+
+            for (int step = 0; node.mStatus != GRANTED; ) {
+                // Announce a park before rechecking the status so a
+                // releaser either sees the announcement or this
+                // thread sees the grant.
+                if (mSpinPolicy.parks(step)) {
+                    node.mParked = true;
+                }
+                if (node.mStatus == WAITING) {
+                    step = mSpinPolicy.pause(step);
+                }
+
+                if (isCancelled.get()) {
+                    if (node.casStatus(WAITING, ABANDONED)) {
+                        throw new CancellationException("Canceled while waiting for lock.");
+                    }
+
+                    // The lock was granted concurrently, so pass
+                    // it on before reporting the cancellation.
+                    release(node);
+                    throw new CancellationException("Canceled while waiting for lock.");
+                }
+            }
+        }
+
+        mHolder = node;
+        mSpinPolicy.acquired();
+    }
+
+    /**
+     * Release the lock.  Throws IllegalMonitorStateException if
+     * the calling thread doesn't own the lock.
+     */
+    @Override
+    public void unlock() {
+        Node node = mHolder;
+        if (node == null || node.mThread != Thread.currentThread()) {
+            throw new IllegalMonitorStateException("Unlock called by non-owner thread.");
+        }
+
+        mHolder = null;
+        mSpinPolicy.released();
+        release(node);
+    }
+
+    /**
+     * Passes the lock from the specified node to the first waiting
+     * successor, skipping any abandoned nodes, or frees the lock if
+     * there are no waiting successors.
+     *
+     * @param node The node currently holding the lock.
+     */
+    private void release(Node node) {
+        while (true) {
+            Node next = node.mNext;
+
+            if (next == null) {
+                // No known successor, so try to free the lock.
+                if (mTail.compareAndSet(node, null)) {
+                    return;
+                }
+
+                // A successor has swapped itself into the tail and
+                // will link itself to this node momentarily.
+                while ((next = node.mNext) == null) {
+                    Thread.yield();
+                }
+            }
+
+            if (next.casStatus(WAITING, GRANTED)) {
+                if (next.mParked) {
+                    LockSupport.unpark(next.mThread);
+                }
+                return;
+            }
+
+            // The successor has been abandoned, so release
+            // the lock on its behalf.
+            node = next;
+        }
+    }
+
+    /**
+     * Padding placed before the hot node fields.
+     */
+    @SuppressWarnings("unused")
+    private static class NodeLeftPad {
+        long p01, p02, p03, p04, p05, p06, p07;
+    }
+
+    /**
+     * The hot node fields.
+     */
+    private static class NodeFields extends NodeLeftPad {
+        /**
+         * The WAITING, GRANTED, or ABANDONED state of this node,
+         * which is the only field that a waiter spins on.
+         */
+        volatile int mStatus = WAITING;
+
+        /**
+         * The successor node, or null if none has linked itself yet.
+         */
+        volatile Node mNext;
+
+        /**
+         * Set when the waiting thread may be parked.
+         */
+        volatile boolean mParked;
+
+        /**
+         * The thread that created this node.
+         */
+        final Thread mThread = Thread.currentThread();
+    }
+
+    /**
+     * A queue node padded on both sides so that the status
+     * fields of different waiters never share a cache line.
+     */
+    @SuppressWarnings("unused")
+    private static class Node extends NodeFields {
+        /**
+         * Atomic updater for the status field.
+         */
+        private static final AtomicIntegerFieldUpdater<NodeFields> sStatus =
+                AtomicIntegerFieldUpdater.newUpdater(NodeFields.class, "mStatus");
+
+        long p11, p12, p13, p14, p15, p16, p17;
+
+        /**
+         * Atomically sets the status if it has the expected value.
+         */
+        boolean casStatus(int expect, int update) {
+            return sStatus.compareAndSet(this, expect, update);
+        }
+    }
+}
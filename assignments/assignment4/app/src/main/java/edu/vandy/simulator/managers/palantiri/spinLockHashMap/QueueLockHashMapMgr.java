@@ -0,0 +1,200 @@
+package edu.vandy.simulator.managers.palantiri.spinLockHashMap;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import edu.vandy.simulator.managers.palantiri.LockedHashMapMgr;
+import edu.vandy.simulator.managers.palantiri.Palantir;
+
+/**
+ * A complete version of the SpinLockHashMapMgr assignment that
+ * serializes access to its palantiri map with one of the queue locks
+ * in this package. The lock is the type selected via
+ * {@link #setLockType} when the model is built, or an
+ * {@link McsSpinLock} if no type has been selected, so the lock
+ * implementations can be compared in a running simulation (e.g.,
+ * with the CLI's --lock-type option).
+ */
+public class QueueLockHashMapMgr
+        extends LockedHashMapMgr {
+    /**
+     * Debugging tag used by the Android logger.
+     */
+    protected final static String TAG =
+            QueueLockHashMapMgr.class.getSimpleName();
+
+    /**
+     * The lock type explicitly selected for all managers, or null
+     * to use an McsSpinLock.
+     */
+    private static volatile LockType sLockType = null;
+
+    /**
+     * The maximum time in milliseconds that {@link #lock} waits for
+     * a TimedCancellableLock, or 0 to wait indefinitely.
+     */
+    private volatile long mLockTimeout = 0;
+
+    /**
+     * The lock that serializes access to the palantiri map.
+     */
+    private CancellableLock mSpinLock;
+
+    /**
+     * Selects the CancellableLock implementation used by managers
+     * built after this call (e.g., to compare lock implementations).
+     *
+     * @param lockType The lock type or null to use an McsSpinLock.
+     */
+    public static void setLockType(LockType lockType) {
+        sLockType = lockType;
+    }
+
+    /**
+     * @return The selected lock type, or null if an McsSpinLock is
+     * used.
+     */
+    public static LockType getLockType() {
+        return sLockType;
+    }
+
+    /**
+     * Bounds how long {@link #lock} waits for locks that support
+     * timeouts so that, under overload, a being gives up instead of
+     * waiting behind an arbitrarily long queue.
+     *
+     * @param timeout The timeout in milliseconds or 0 to wait
+     *                indefinitely.
+     */
+    public void setLockTimeout(long timeout) {
+        if (timeout < 0) {
+            throw new IllegalArgumentException("Lock timeout must be >= 0");
+        }
+        mLockTimeout = timeout;
+    }
+
+    /**
+     * @return The lock timeout in milliseconds, or 0 if lock
+     * acquisitions wait indefinitely.
+     */
+    public long getLockTimeout() {
+        return mLockTimeout;
+    }
+
+    /**
+     * Acquires the passed lock, honoring the lock timeout if one has
+     * been set via {@link #setLockTimeout} and the lock supports it.
+     *
+     * @param lock        The lock to acquire.
+     * @param isCancelled Supplier that is called to see if the attempt
+     *                    to lock should be abandoned.
+     * @return {@code true} if the lock was acquired and {@code false}
+     * if the lock timeout elapsed first.
+     * @throws CancellationException Thrown if the attempt is cancelled.
+     */
+    protected boolean lock(CancellableLock lock, Supplier<Boolean> isCancelled)
+            throws CancellationException {
+        long timeout = mLockTimeout;
+        if (timeout > 0 && lock instanceof TimedCancellableLock) {
+            return ((TimedCancellableLock) lock)
+                    .tryLock(timeout, TimeUnit.MILLISECONDS, isCancelled);
+        } else {
+            lock.lock(isCancelled);
+            return true;
+        }
+    }
+
+    /**
+     * @return The lock instance.
+     */
+    public CancellableLock getSpinLock() {
+        return mSpinLock;
+    }
+
+    /**
+     * Called by super class to build the Palantiri model.
+     * Note that this method is only called when the number
+     * of palantiri is changed from the last simulation run.
+     */
+    @Override
+    protected void buildModel() {
+        LockType lockType = sLockType;
+        mSpinLock = lockType != null ? lockType.newLock() : new McsSpinLock();
+        super.buildModel();
+    }
+
+    /**
+     * Get a Palantir from the PalantiriManager, blocking until one is
+     * available.
+     *
+     * @return The first available Palantir.
+     * @throws LockTimeoutException Thrown if the lock timeout elapses
+     *                              while waiting for the lock.
+     */
+    @Override
+    @NotNull
+    protected Palantir acquire() throws CancellationException, InterruptedException {
+        getAvailablePalantiri().acquire();
+
+        Palantir palantir = claim();
+        if (palantir == null) {
+            throw new LockTimeoutException(getLockTimeout());
+        }
+        return palantir;
+    }
+
+    /**
+     * Acquires the lock, honoring the lock timeout.
+     *
+     * @return {@code true} if the lock was acquired and {@code false}
+     * if the lock timeout elapsed first.
+     */
+    @Override
+    protected boolean lockMap() throws CancellationException {
+        return lock(mSpinLock, this::isCancelled);
+    }
+
+    /**
+     * Acquires the lock without a timeout or cancellation.
+     */
+    @Override
+    protected void lockMapUncancellably() {
+        mSpinLock.lock(() -> false);
+    }
+
+    /**
+     * Releases the lock.
+     */
+    @Override
+    protected void unlockMap() {
+        mSpinLock.unlock();
+    }
+
+    /**
+     * The CancellableLock implementations that can be selected
+     * via {@link #setLockType}. The SpinLock and ReentrantSpinLock
+     * assignment stubs are left out since they don't lock anything
+     * until they have been completed.
+     */
+    public enum LockType {
+        MCS_SPIN_LOCK(McsSpinLock::new),
+        CLH_SPIN_LOCK(ClhSpinLock::new),
+        TTAS_SPIN_LOCK(TtasSpinLock::new);
+
+        private final Supplier<CancellableLock> mFactory;
+
+        LockType(Supplier<CancellableLock> factory) {
+            mFactory = factory;
+        }
+
+        /**
+         * @return A new lock of this type.
+         */
+        CancellableLock newLock() {
+            return mFactory.get();
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package edu.vandy.simulator.managers.palantiri.spinLockHashMap;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * An adaptive spin-then-park policy for spin locks. A waiter first
+ * busy spins for a limited number of iterations, then backs off
+ * exponentially, and finally parks for exponentially growing (but
+ * bounded) periods. This keeps a lock fast when it is uncontended
+ * or held briefly, but stops waiters from stealing the processor
+ * from the holder when there are more waiting threads than cores.
+ * <p>
+ * The spin limit is tuned from the lock's observed hold time: a
+ * lock that is released sooner than a park/unpark round trip is
+ * worth spinning for, while a lock that is held longer is not. On a
+ * single processor spinning never helps, so waiters skip straight
+ * to the backoff phase.
+ * <p>
+ * A lock uses one instance of this class and calls {@link #pause}
+ * in its acquisition loop, {@link #acquired} once it holds the lock,
+ * and {@link #released} just before it releases the lock:
+ * <pre>
+ *     for (int step = 0; !tryLock(); step = mSpinPolicy.pause(step)) {
+ *         if (isCancelled.get()) throw new CancellationException();
+ *     }
+ *     mSpinPolicy.acquired();
+ * </pre>
+ * Queue locks such as {@link McsSpinLock} and {@link ClhSpinLock}
+ * pause in the same way while waiting for their predecessor, using
+ * {@link #parks} to tell the predecessor when to unpark them.
+ */
+class SpinPolicy {
+    /**
+     * The minimum and maximum number of busy spins before backing
+     * off when there is more than one processor.
+     */
+    static final int MIN_SPINS = 1 << 4;
+    static final int MAX_SPINS = 1 << 12;
+
+    /**
+     * The approximate cost of one spin iteration (including the
+     * caller's tryLock() attempt) in nanoseconds.
+     */
+    private static final long SPIN_NANOS = 20;
+
+    /**
+     * Hold times longer than this approximate cost of parking and
+     * unparking a thread are not worth spinning for.
+     */
+    private static final long PARK_COST_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    /**
+     * The number of exponential backoff steps between spinning and
+     * parking, where step i busy waits for 2^i iterations.
+     */
+    private static final int BACKOFF_STEPS = 10;
+
+    /**
+     * The range of park times used once backing off is exhausted.
+     */
+    private static final long MIN_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(10);
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * Only every 2^SAMPLE_SHIFT acquisitions have their hold time
+     * measured so the uncontended fast path stays cheap.
+     */
+    private static final int SAMPLE_SHIFT = 4;
+
+    /**
+     * True if there is more than one processor to spin on.
+     */
+    private final boolean mMultiprocessor;
+
+    /**
+     * The current spin limit, read by all waiters.
+     */
+    private volatile int mSpinLimit;
+
+    /**
+     * Exponentially weighted moving average of the sampled hold
+     * times in nanoseconds. Only accessed by the lock holder.
+     */
+    private long mAverageHold;
+
+    /**
+     * The number of acquisitions, used for sampling. Only accessed
+     * by the lock holder.
+     */
+    private int mAcquisitions;
+
+    /**
+     * The System.nanoTime() at which the sampled acquisition was
+     * made or 0 if the current acquisition isn't being sampled.
+     * Only accessed by the lock holder.
+     */
+    private long mAcquiredAt;
+
+    /**
+     * Default constructor uses the number of available processors.
+     */
+    SpinPolicy() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor initializes the policy for the given number
+     * of processors.
+     *
+     * @param processors The number of processors.
+     */
+    SpinPolicy(int processors) {
+        mMultiprocessor = processors > 1;
+        mSpinLimit = mMultiprocessor ? MAX_SPINS : 0;
+    }
+
+    /**
+     * Waits before the next attempt to acquire the lock. The wait
+     * grows with the step number from a single busy spin to a
+     * bounded park.
+     *
+     * @param step The number of times this method has been called
+     *             during the current acquisition attempt.
+     * @return The step number to pass to the next call.
+     */
+    int pause(int step) {
+        return pause(step, MAX_PARK_NANOS);
+    }
+
+    /**
+     * Waits before the next attempt to acquire the lock, parking for
+     * at most the passed time (e.g., the time left before a lock
+     * attempt times out).
+     *
+     * @param step         The number of times this method has been
+     *                     called during the current acquisition attempt.
+     * @param maxParkNanos The maximum time to park in nanoseconds.
+     * @return The step number to pass to the next call.
+     */
+    int pause(int step, long maxParkNanos) {
+        int spinLimit = mSpinLimit;
+        if (step < spinLimit) {
+            // Busy spin.
+            return step + 1;
+        }
+
+        int backoff = step - spinLimit;
+        if (backoff < BACKOFF_STEPS) {
+            // Exponential backoff.
+            spinWait(1 << backoff);
+        } else {
+            // Park for exponentially increasing periods.
+            int shift = Math.min(backoff - BACKOFF_STEPS, 16);
+            LockSupport.parkNanos(this, Math.min(MIN_PARK_NANOS << shift,
+                                                 Math.min(maxParkNanos, MAX_PARK_NANOS)));
+        }
+
+        // Avoid overflowing the step with very long waits.
+        return backoff < BACKOFF_STEPS + 16 ? step + 1 : step;
+    }
+
+    /**
+     * Queue locks whose waiters are woken by their predecessor call
+     * this method before each pause to learn whether they need to
+     * announce that they may be parked.
+     *
+     * @param step The step number that will be passed to {@link
+     *             #pause}.
+     * @return {@code true} if pausing at this step parks the calling
+     * thread.
+     */
+    boolean parks(int step) {
+        return step - mSpinLimit >= BACKOFF_STEPS;
+    }
+
+    /**
+     * Called by the lock holder after acquiring the lock.
+     */
+    void acquired() {
+        mAcquiredAt = (++mAcquisitions & ((1 << SAMPLE_SHIFT) - 1)) == 0
+                ? System.nanoTime()
+                : 0;
+    }
+
+    /**
+     * Called by the lock holder just before releasing the lock to
+     * update the hold time estimate and the spin limit.
+     */
+    void released() {
+        long acquiredAt = mAcquiredAt;
+        if (acquiredAt == 0) {
+            return;
+        }
+
+        long held = System.nanoTime() - acquiredAt;
+        mAverageHold = mAverageHold == 0
+                ? held
+                : mAverageHold + ((held - mAverageHold) >> 3);
+
+        if (mMultiprocessor) {
+            int spinLimit = mAverageHold > PARK_COST_NANOS
+                    ? MIN_SPINS
+                    : (int) Math.max(MIN_SPINS,
+                                     Math.min(MAX_SPINS, 2 * mAverageHold / SPIN_NANOS));
+            if (spinLimit != mSpinLimit) {
+                mSpinLimit = spinLimit;
+            }
+        }
+    }
+
+    /**
+     * @return The current spin limit.
+     */
+    int getSpinLimit() {
+        return mSpinLimit;
+    }
+
+    /**
+     * Busy waits for the given number of iterations. Thread.onSpinWait()
+     * requires Java 9 (Android API 34), so this simply reads a volatile
+     * field, which keeps the loop from being optimized away.
+     *
+     * @param iterations The number of iterations to wait.
+     */
+    private void spinWait(int iterations) {
+        for (int i = 0; i < iterations; i++) {
+            if (mSpinLimit < 0) {
+                // Never true; forces a volatile read.
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package edu.vandy.simulator.managers.palantiri.spinLockHashMap;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * A cancellable lock that also supports bounding how long
+ * a thread waits to acquire the lock.
+ */
+interface TimedCancellableLock
+        extends CancellableLock {
+    /**
+     * Acquire the lock if it becomes available within the specified
+     * waiting time.
+     *
+     * @param timeout     The maximum time to wait for the lock.
+     * @param unit        The time unit of the timeout argument.
+     * @param isCancelled Supplier that is called to see if the attempt
+     *                    to lock should be abandoned due to a pending
+     *                    shutdown operation.
+     * @return {@code true} if the lock was acquired and {@code false}
+     * if the waiting time elapsed before the lock was acquired.
+     * @throws CancellationException Thrown only if a pending shutdown
+     *                               operation is has been detected by calling the isCancelled supplier.
+     */
+    boolean tryLock(long timeout, TimeUnit unit, Supplier<Boolean> isCancelled)
+            throws CancellationException;
+
+    /**
+     * Acquire the lock if it becomes available within the specified
+     * waiting time.
+     *
+     * @param timeout The maximum time to wait for the lock.
+     * @param unit    The time unit of the timeout argument.
+     * @return {@code true} if the lock was acquired and {@code false}
+     * if the waiting time elapsed before the lock was acquired.
+     */
+    default boolean tryLock(long timeout, TimeUnit unit) {
+        return tryLock(timeout, unit, () -> false);
+    }
+}
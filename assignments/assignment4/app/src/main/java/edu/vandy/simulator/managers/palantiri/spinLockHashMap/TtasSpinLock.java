@@ -0,0 +1,132 @@
+package edu.vandy.simulator.managers.palantiri.spinLockHashMap;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.function.Supplier;
+
+/**
+ * A "test-and-test-and-set" spin lock with non-recursive semantics.
+ * Waiters spin reading the lock state, which keeps its cache line in
+ * the shared state, and only attempt a compare-and-swap (which needs
+ * the line in exclusive mode) once the lock appears to be free. The
+ * state word is padded to occupy its own cache line so that it isn't
+ * invalidated by writes to neighbouring fields.
+ */
+class TtasSpinLock
+        implements CancellableLock {
+    /**
+     * The padded lock state.
+     */
+    private final State mState = new State();
+
+    /**
+     * Decides how long to wait between attempts to acquire the lock
+     * and adapts to the observed lock hold time.
+     */
+    private final SpinPolicy mSpinPolicy = new SpinPolicy();
+
+    /**
+     * The thread that currently holds the lock. Only read and
+     * written by the lock holder.
+     */
+    private Thread mHolder;
+
+    /**
+     * Acquire the lock only if it is free at the time of invocation.
+     * Acquire the lock if it is available and returns immediately
+     * with the value true.  If the lock is not available then this
+     * method will return immediately with the value false.
+     */
+    @Override
+    public boolean tryLock() {
+        if (mState.mValue == 0 && mState.compareAndSet(0, 1)) {
+            mHolder = Thread.currentThread();
+            mSpinPolicy.acquired();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Acquire the lock. If the lock is not available then the current
+     * thread spins reading the lock state until it appears free and
+     * then tries to acquire it.
+     *
+     * @param isCancelled Supplier that is called to see if the attempt
+     *                    to lock should be abandoned due to a pending
+     *                    shutdown operation.
+     * @throws CancellationException Thrown only if a pending shutdown
+     *                               operation is has been detected by calling the isCancelled supplier.
+     */
+    @Override
+    public void lock(Supplier<Boolean> isCancelled)
+            throws CancellationException {
+        for (int step = 0; !tryLock(); step = mSpinPolicy.pause(step)) {
+            if (isCancelled.get()) {
+                throw new CancellationException("Canceled while waiting for lock.");
+            }
+        }
+    }
+
+    /**
+     * Release the lock.  Throws IllegalMonitorStateException if
+     * the calling thread doesn't own the lock.
+     */
+    @Override
+    public void unlock() {
+        if (mHolder != Thread.currentThread()) {
+            throw new IllegalMonitorStateException("Unlock called by non-owner thread.");
+        }
+
+        mHolder = null;
+        mSpinPolicy.released();
+        mState.lazySet(0);
+    }
+
+    /**
+     * Padding placed before the lock state.
+     */
+    @SuppressWarnings("unused")
+    private static class StateLeftPad {
+        long p01, p02, p03, p04, p05, p06, p07;
+    }
+
+    /**
+     * The lock state field.
+     */
+    private static class StateValue extends StateLeftPad {
+        /**
+         * 1 if the lock is held and 0 otherwise.
+         */
+        volatile int mValue;
+    }
+
+    /**
+     * The lock state padded on both sides so that it occupies
+     * its own cache line.
+     */
+    @SuppressWarnings("unused")
+    private static class State extends StateValue {
+        /**
+         * Atomic updater for the state value.
+         */
+        private static final AtomicIntegerFieldUpdater<StateValue> sValue =
+                AtomicIntegerFieldUpdater.newUpdater(StateValue.class, "mValue");
+
+        long p11, p12, p13, p14, p15, p16, p17;
+
+        /**
+         * Atomically sets the value if it has the expected value.
+         */
+        boolean compareAndSet(int expect, int update) {
+            return sValue.compareAndSet(this, expect, update);
+        }
+
+        /**
+         * Eventually sets the value with release semantics.
+         */
+        void lazySet(int value) {
+            sValue.lazySet(this, value);
+        }
+    }
+}
@@ -1,7 +1,5 @@
 package edu.vandy.simulator.managers.palantiri.stampedLockFairSemaphore;
 
-import android.util.Log;
-
 import org.jetbrains.annotations.NotNull;
 
 import java.util.Map;
@@ -16,6 +14,7 @@ import edu.vandy.simulator.managers.palantiri.concurrentMapFairSemaphore.FairSem
 import edu.vandy.simulator.managers.palantiri.concurrentMapFairSemaphore.FairSemaphoreCO;
 import edu.vandy.simulator.managers.palantiri.concurrentMapFairSemaphore.FairSemaphoreMO;
 import edu.vandy.simulator.utils.Assignment;
+import edu.vandy.simulator.utils.Log;
 
 import static java.util.stream.Collectors.toMap;
 
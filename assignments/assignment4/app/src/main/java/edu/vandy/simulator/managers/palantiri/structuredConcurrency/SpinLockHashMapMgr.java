@@ -0,0 +1,120 @@
+package edu.vandy.simulator.managers.palantiri.structuredConcurrency;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.CancellationException;
+
+import edu.vandy.simulator.managers.palantiri.LockedHashMapMgr;
+import edu.vandy.simulator.managers.palantiri.Palantir;
+
+/**
+ * A PalantiriManager implemented using a SuspendingSpinLock, a fair
+ * Semaphore, and a HashMap. It is meant to be used together with the
+ * structured concurrency being manager: a being that waits for a
+ * palantir or for the lock suspends its thread rather than spinning,
+ * and a being whose scope has been cancelled (which interrupts it)
+ * abandons the wait by throwing a CancellationException instead of
+ * returning a null palantir.
+ */
+public class SpinLockHashMapMgr
+        extends LockedHashMapMgr {
+    /**
+     * Debugging tag used by the Android logger.
+     */
+    protected final static String TAG =
+            SpinLockHashMapMgr.class.getSimpleName();
+
+    /**
+     * A lock that serializes access to the palantiri map.
+     */
+    private SuspendingSpinLock mSpinLock;
+
+    /**
+     * Called by super class to build the Palantiri model.
+     * Note that this method is only called when the number
+     * of palantiri is changed from the last simulation run.
+     */
+    @Override
+    protected void buildModel() {
+        mSpinLock = new SuspendingSpinLock();
+        super.buildModel();
+    }
+
+    /**
+     * Get the next available Palantir from the resource pool,
+     * suspending the calling thread until one is available.
+     *
+     * @return The first available Palantir.
+     * @throws CancellationException Thrown if the calling being is
+     *                               interrupted by its scope.
+     */
+    @NotNull
+    @Override
+    protected Palantir acquire() throws CancellationException {
+        try {
+            getAvailablePalantiri().acquire();
+        } catch (InterruptedException e) {
+            throw cancelled();
+        }
+
+        return claim();
+    }
+
+    /**
+     * Suspends the calling thread until the lock is acquired.
+     *
+     * @return Always {@code true}.
+     * @throws CancellationException Thrown if the calling being is
+     *                               interrupted by its scope.
+     */
+    @Override
+    protected boolean lockMap() throws CancellationException {
+        try {
+            mSpinLock.lockInterruptibly();
+            return true;
+        } catch (InterruptedException e) {
+            throw cancelled();
+        }
+    }
+
+    /**
+     * Suspends the calling thread until the lock is acquired, even
+     * if the thread is interrupted, in which case its interrupt
+     * status is set again once the lock is held.
+     */
+    @Override
+    protected void lockMapUncancellably() {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                mSpinLock.lockInterruptibly();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Releases the lock.
+     */
+    @Override
+    protected void unlockMap() {
+        mSpinLock.unlock();
+    }
+
+    /**
+     * Converts an interrupt into the CancellationException expected
+     * by beings while keeping the thread's interrupt status set.
+     *
+     * @return The exception to throw.
+     */
+    private CancellationException cancelled() {
+        Thread.currentThread().interrupt();
+        return new CancellationException("Palantir request was cancelled.");
+    }
+}
@@ -0,0 +1,105 @@
+package edu.vandy.simulator.managers.palantiri.structuredConcurrency;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A non-reentrant spin lock that only spins for a short while before
+ * suspending the waiting thread. A being that runs on a virtual
+ * thread therefore gives up its carrier thread instead of burning it
+ * while another being holds the lock, much like a coroutine suspends
+ * on a Mutex. Suspended threads are queued and the oldest is woken
+ * by each unlock, but an arriving thread may still barge ahead of it.
+ * <p>
+ * The wait can be abandoned by interrupting the waiting thread, which
+ * is how a cancelled scope stops its beings.
+ */
+class SuspendingSpinLock {
+    /**
+     * The number of times to retry the lock before suspending.
+     */
+    private static final int SPIN_LIMIT = 64;
+
+    /**
+     * True while the lock is held.
+     */
+    private final AtomicBoolean mLocked = new AtomicBoolean();
+
+    /**
+     * Threads suspended waiting for the lock, in FIFO order.
+     */
+    private final Queue<Thread> mWaiters = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Acquire the lock only if it is free at the time of invocation.
+     *
+     * @return {@code true} if the lock was acquired.
+     */
+    boolean tryLock() {
+        return !mLocked.get() && mLocked.compareAndSet(false, true);
+    }
+
+    /**
+     * Acquire the lock, spinning briefly and then suspending the
+     * calling thread until the lock is free.
+     *
+     * @throws InterruptedException Thrown if the calling thread is
+     *                              interrupted while waiting.
+     */
+    void lockInterruptibly() throws InterruptedException {
+        for (int spins = 0; spins < SPIN_LIMIT; spins++) {
+            if (tryLock()) {
+                return;
+            }
+        }
+
+        Thread thread = Thread.currentThread();
+
+        // Enqueue before re-checking the lock so that a concurrent
+        // unlock either sees this waiter or this waiter sees the
+        // lock as free.
+        mWaiters.add(thread);
+
+        boolean locked = false;
+        try {
+            while (!(locked = tryLock())) {
+                LockSupport.park(this);
+
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+        } finally {
+            mWaiters.remove(thread);
+
+            // An unlock may have woken this thread just as it gave
+            // up, so pass the wakeup on to the next waiter.
+            if (!locked && !mLocked.get()) {
+                wakeFirstWaiter();
+            }
+        }
+    }
+
+    /**
+     * Release the lock and wake the oldest suspended thread.
+     */
+    void unlock() {
+        if (!mLocked.getAndSet(false)) {
+            throw new IllegalMonitorStateException("Unlock called when not locked.");
+        }
+
+        wakeFirstWaiter();
+    }
+
+    /**
+     * Wakes the oldest suspended thread, if any.
+     */
+    private void wakeFirstWaiter() {
+        Thread waiter = mWaiters.peek();
+        if (waiter != null) {
+            LockSupport.unpark(waiter);
+        }
+    }
+}
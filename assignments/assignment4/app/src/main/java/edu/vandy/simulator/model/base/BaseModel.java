@@ -2,10 +2,22 @@ package edu.vandy.simulator.model.base;
 
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 import edu.vandy.simulator.Controller;
+import edu.vandy.simulator.model.implementation.snapshots.ModelDelta;
 import edu.vandy.simulator.model.implementation.snapshots.ModelSnapshot;
 import edu.vandy.simulator.model.interfaces.ComponentSnapshot;
 import edu.vandy.simulator.model.interfaces.Model;
@@ -34,18 +46,59 @@ public abstract class BaseModel<Type, State>
         extends BaseComponent<Type, State>
         implements Model {
     /**
-     * Optional list of Model observers.
+     * Logging tag.
      */
-    private final List<WeakReference<ModelObserver>> mObservers
-            = new ArrayList<>();
+    private static final String TAG = BaseModel.class.getSimpleName();
 
     /**
-     * Construct a fair re-entrant read/write lock to
-     * control concurrent access to the list of model
-     * observers.
+     * An empty observers array.
      */
-    private final ReentrantReadWriteLock mObserversLock
-            = new ReentrantReadWriteLock(true);
+    private static final ObserverRef[] NO_OBSERVERS = new ObserverRef[0];
+
+    /**
+     * The single long-lived daemon thread that runs the dispatcher
+     * ticks of all models (see {@link Controller#setSnapshotRate}).
+     */
+    private static final ScheduledExecutorService sDispatcher =
+            Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, TAG + "-dispatcher");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    /**
+     * Copy-on-write array of weakly referenced Model observers. The
+     * array is never modified once published, so broadcasts read it
+     * without locking while additions and removals atomically swap
+     * in a new copy.
+     */
+    private final AtomicReference<ObserverRef[]> mObservers
+            = new AtomicReference<>(NO_OBSERVERS);
+
+    /**
+     * Counts the deltas published in incremental snapshot mode
+     * so that a full snapshot can be published periodically.
+     */
+    private final AtomicInteger mDeltaCount = new AtomicInteger(0);
+
+    /**
+     * Components that have changed state since the last publication
+     * in dispatcher mode (see {@link Controller#setSnapshotRate}).
+     */
+    private final Set<ModelComponent> mDirty = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Set while a dispatcher tick is scheduled for this model. Ticks
+     * stop once one finds no changes and are rescheduled on demand.
+     */
+    private final AtomicBoolean mDispatching = new AtomicBoolean(false);
+
+    /**
+     * Serializes the dispatcher's publications with model state
+     * publications so that no batch of component changes is
+     * published after a later model snapshot.
+     */
+    private final Object mPublishLock = new Object();
 
     /**
      * Constructor for capturing a back reference to the
@@ -75,20 +128,17 @@ public abstract class BaseModel<Type, State>
      */
     @Override
     public void addObserver(ModelObserver observer, boolean notify) {
+        ObserverRef ref = new ObserverRef(observer);
 
-        // Acquire write lock for updating observers list.
-        mObserversLock.writeLock().lock();
-
-        try {
-            // Remove this observer if already in the list.
-            removeObserver(observer);
-
-            // Add the observer to the list.
-            mObservers.add(new WeakReference<>(observer));
-        } finally {
-            // Release the write lock.
-            mObserversLock.writeLock().unlock();
-        }
+        // Replace any existing entry for this observer (and any
+        // cleared entries) with a copy that ends with the new entry.
+        mObservers.updateAndGet(observers -> {
+            ObserverRef[] copy = removeIf(observers, entry ->
+                    entry.get() == null || entry.get() == observer);
+            copy = Arrays.copyOf(copy, copy.length + 1);
+            copy[copy.length - 1] = ref;
+            return copy;
+        });
 
         // Immediately notify observer about all cache contents.
         if (notify) {
@@ -104,41 +154,169 @@ public abstract class BaseModel<Type, State>
      *                 {@link ModelObserver} interface.
      */
     public void removeObserver(ModelObserver observer) {
-        // Acquire write access to observers list.
-        mObserversLock.writeLock().lock();
-
-        try {
-            // Remove observer from the list of observers.
-            // We can't simply list.remove because the passed
-            // observer is wrapped in an ObserverEntry which
-            // contains a WeakReference to this observer.
-            mObservers.stream()
-                    .filter(entry -> entry == observer)
-                    .findFirst()
-                    .ifPresent(mObservers::remove);
-        } finally {
-            // Release write lock.
-            mObserversLock.writeLock().unlock();
-        }
+        // Entries are WeakReferences, so compare their referents
+        // with the passed observer. Cleared entries are also purged.
+        mObservers.updateAndGet(observers -> removeIf(observers, entry ->
+                entry.get() == null || entry.get() == observer));
     }
 
     /**
-     * Updates the currently cached model snapshot with the
-     * snapshot of the passed component and then broadcasts
-     * this updated model snapshot to all registered model
-     * observers.
-     * <p>
-     * NOTE: the above comment is outdated because a new fresh
-     * snapshot is created by updateModelSnapshot which no longer
-     * updates a cached snapshot. The comment is being kept
-     * until I'm sure that the underlying snapshot generation
-     * algorithm does not have any concurrency side-effects.
+     * Builds a fresh model snapshot and broadcasts it to all
+     * registered model observers. When incremental snapshot mode
+     * is enabled (see {@link Controller#setFullSnapshotInterval}),
+     * only a {@link ModelDelta} containing the changed components
+     * is broadcast and a full snapshot is broadcast once every
+     * interval deltas. When dispatcher mode is enabled (see {@link
+     * Controller#setSnapshotRate}), component changes are only
+     * recorded here and are published by the dispatcher thread.
      *
      * @param component Component that is triggering this snapshot.
      */
     @Override
     public void triggerSnapshot(ModelComponent component) {
-        broadcastSnapshot(updateModelSnapshot(component));
+        if (component != this) {
+            if (Controller.getSnapshotRate() > 0) {
+                mDirty.add(component);
+                startDispatcher();
+            } else {
+                publish(component);
+            }
+        } else {
+            // Publish any pending component changes before a model
+            // state change. Holding the publish lock waits for any
+            // batch the dispatcher is publishing, and keeps it from
+            // publishing one after the model snapshot, so observers
+            // see them in order.
+            synchronized (mPublishLock) {
+                List<ModelComponent> pending = drainDirty();
+                if (!pending.isEmpty()) {
+                    publishChanges(pending);
+                }
+
+                publish(component);
+            }
+        }
+    }
+
+    /**
+     * Publishes a snapshot (or delta) for a single component state
+     * change on the calling thread.
+     *
+     * @param component Component that is triggering this snapshot.
+     */
+    private void publish(ModelComponent component) {
+        int interval = Controller.getFullSnapshotInterval();
+
+        // Model (simulator) state changes are rare and mark
+        // the start and end of a simulation, so they always
+        // publish a full snapshot.
+        if (interval == 0 || component == this) {
+            broadcastSnapshot(updateModelSnapshot(component));
+        } else {
+            // Incremental mode: only publish the changed
+            // components and periodically publish a full
+            // snapshot so that observers can resynchronize.
+            broadcastDelta(buildModelDelta(component));
+
+            if (mDeltaCount.incrementAndGet() % interval == 0) {
+                broadcastSnapshot(updateModelSnapshot(component));
+            }
+        }
+    }
+
+    /**
+     * Schedules a dispatcher tick if none is already scheduled.
+     */
+    private void startDispatcher() {
+        if (!mDispatching.get() && mDispatching.compareAndSet(false, true)) {
+            scheduleTick();
+        }
+    }
+
+    /**
+     * Schedules the next dispatcher tick on the shared dispatcher
+     * thread at the configured snapshot rate.
+     */
+    private void scheduleTick() {
+        int rate = Math.max(Controller.getSnapshotRate(), 1);
+        sDispatcher.schedule(this::runDispatcher,
+                TimeUnit.SECONDS.toNanos(1) / rate,
+                TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * A single dispatcher tick. It publishes all component changes
+     * recorded since the previous tick as a single snapshot (or
+     * delta) and schedules the next tick. Ticks stop after one with
+     * no changes and {@link #startDispatcher} schedules a new one
+     * when another change is recorded, so an idle model costs
+     * nothing while the dispatcher thread itself stays alive.
+     */
+    private void runDispatcher() {
+        boolean published;
+
+        // Drain and publish under the publish lock so that a
+        // model state change can't be published in between.
+        synchronized (mPublishLock) {
+            List<ModelComponent> changes = drainDirty();
+            published = !changes.isEmpty();
+            if (published) {
+                try {
+                    publishChanges(changes);
+                } catch (RuntimeException e) {
+                    // Keep dispatching; a failing observer or
+                    // snapshot must not stop later publications.
+                    Controller.log(TAG + ": dispatcher publication failed: " + e);
+                }
+            }
+        }
+
+        if (published) {
+            scheduleTick();
+        } else {
+            mDispatching.set(false);
+
+            // Recheck for a change recorded by a thread that
+            // saw the flag set just before it was cleared.
+            if (!mDirty.isEmpty() && mDispatching.compareAndSet(false, true)) {
+                scheduleTick();
+            }
+        }
+    }
+
+    /**
+     * @return All components recorded as changed in dispatcher
+     * mode; each component is returned to only one caller.
+     */
+    private List<ModelComponent> drainDirty() {
+        List<ModelComponent> changes = new ArrayList<>();
+        for (ModelComponent component : mDirty) {
+            if (mDirty.remove(component)) {
+                changes.add(component);
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * Publishes the current state of the passed components as a
+     * single full snapshot or, in incremental mode, as a single
+     * delta (with a full snapshot once every interval deltas).
+     *
+     * @param components The components that have changed.
+     */
+    private void publishChanges(Collection<ModelComponent> components) {
+        int interval = Controller.getFullSnapshotInterval();
+
+        if (interval == 0) {
+            broadcastSnapshot(updateModelSnapshot(this));
+        } else {
+            broadcastDelta(buildModelDelta(components));
+
+            if (mDeltaCount.incrementAndGet() % interval == 0) {
+                broadcastSnapshot(updateModelSnapshot(this));
+            }
+        }
     }
 
     /**
@@ -148,32 +326,92 @@ public abstract class BaseModel<Type, State>
      * @param snapshot Snapshot to broadcast.
      */
     protected void broadcastSnapshot(ModelSnapshot snapshot) {
-        // If an observer is registered, then construct an immutable
-        // snapshot of the model state and push it to presentation layer.
-        if (!mObservers.isEmpty()) {
-            // Acquire read access to the observers list.
-            mObserversLock.readLock().lock();
-
+        // Notify observers. Since snapshots are immutable
+        // a single snapshot can be safely sent to multiple
+        // observers.
+        forEachObserver(observer -> {
             Controller.log("Sending snapshot: " + snapshot);
+            observer.onModelChanged(snapshot);
+        });
+    }
 
-            try {
-                // Notify observers. Since snapshots are immutable
-                // a single snapshot can be safely sent to multiple
-                // observers.
-                mObservers.forEach(observerRef -> {
-                    ModelObserver observer = observerRef.get();
-                    if (observer != null) {
-                        observer.onModelChanged(snapshot);
-                    }
-                });
-            } finally {
-                // Release the read lock.
-                mObserversLock.readLock().unlock();
+    /**
+     * Broadcasts a delta of the changed model state to all
+     * registered snapshot observers.
+     *
+     * @param delta Delta to broadcast.
+     */
+    protected void broadcastDelta(ModelDelta delta) {
+        // Notify observers. Deltas are immutable so a
+        // single delta can be safely shared.
+        forEachObserver(observer -> {
+            Controller.log("Sending delta: " + delta);
+            observer.onModelDelta(delta);
+        });
+    }
+
+    /**
+     * Passes each registered observer to the specified action. The
+     * observers array is read without locking and any entries whose
+     * observers have been garbage collected are expunged.
+     *
+     * @param action The action to perform on each observer.
+     */
+    private void forEachObserver(Consumer<ModelObserver> action) {
+        boolean cleared = false;
+
+        for (ObserverRef ref : mObservers.get()) {
+            ModelObserver observer = ref.get();
+            if (observer != null) {
+                action.accept(observer);
+            } else {
+                cleared = true;
             }
         }
+
+        if (cleared) {
+            mObservers.updateAndGet(observers ->
+                    removeIf(observers, entry -> entry.get() == null));
+        }
+    }
+
+    /**
+     * @return The number of observer entries, including any whose
+     * observers have been garbage collected but not yet expunged.
+     */
+    int getObserverCount() {
+        return mObservers.get().length;
+    }
+
+    /**
+     * @return A copy of the passed observers array without the
+     * entries that match the filter, or the passed array if no
+     * entries match.
+     */
+    private static ObserverRef[] removeIf(ObserverRef[] observers,
+                                          Predicate<ObserverRef> filter) {
+        ObserverRef[] copy = Arrays.stream(observers)
+                .filter(filter.negate())
+                .toArray(ObserverRef[]::new);
+        return copy.length == observers.length ? observers : copy;
     }
 
     abstract public ModelSnapshot buildModelSnapshot(ModelComponent component);
 
+    abstract public ModelDelta buildModelDelta(ModelComponent component);
+
+    abstract public ModelDelta buildModelDelta(Collection<ModelComponent> components);
+
     abstract public ModelSnapshot updateModelSnapshot(ModelComponent component);
+
+    /**
+     * A weak observer reference. This non-generic subclass allows
+     * the copy-on-write observers array to be created without an
+     * unchecked generic array cast.
+     */
+    private static class ObserverRef extends WeakReference<ModelObserver> {
+        ObserverRef(ModelObserver observer) {
+            super(observer);
+        }
+    }
 }
@@ -2,6 +2,8 @@ package edu.vandy.simulator.model.implementation.components;
 
 import org.jetbrains.annotations.Nullable;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 
@@ -11,6 +13,8 @@ import edu.vandy.simulator.model.base.BaseComponent;
 import edu.vandy.simulator.model.implementation.snapshots.BeingSnapshot;
 import edu.vandy.simulator.model.interfaces.ModelComponent;
 import edu.vandy.simulator.model.interfaces.ModelProvider;
+import edu.vandy.simulator.utils.PauseScheduler;
+import edu.vandy.simulator.utils.VirtualClock;
 
 import static edu.vandy.simulator.model.implementation.components.BeingComponent.State.ACQUIRING;
 import static edu.vandy.simulator.model.implementation.components.BeingComponent.State.CANCELLED;
@@ -87,6 +91,17 @@ public abstract class BeingComponent
      * running simulation.
      */
     private volatile boolean mCancelled = false;
+    /**
+     * The being thread while it is paused in {@link #setState}
+     * so that {@link #shutdownNow} can wake it immediately.
+     */
+    private volatile Thread mPausedThread;
+    /**
+     * The pending delay of an asynchronous state change made by
+     * {@link #setStateAsync} so that {@link #shutdownNow} can end
+     * it immediately.
+     */
+    private volatile CompletableFuture<Void> mPendingDelay;
     /**
      * The Palantir id being gazed into when the being is
      * in the GAZING state.
@@ -120,8 +135,11 @@ public abstract class BeingComponent
 
     /**
      * Pause the current thread for the given number of milliseconds
-     * while also checking the isCancelled supplier periodically to
-     * determine if the pause should be terminated prematurely.
+     * or until the isCancelled supplier returns true. The thread is
+     * parked on the shared {@link PauseScheduler} which wakes it
+     * exactly at the deadline or when {@link #shutdownNow} is called.
+     * In virtual time mode the pause is scheduled on the {@link
+     * VirtualClock} instead.
      *
      * @param duration    The sleep time duration in milliseconds.
      * @param isCancelled a Supplier that returns true if the
@@ -135,35 +153,13 @@ public abstract class BeingComponent
             return false;
         }
 
-        try {
-            // Perform the sleep calls are performed in
-            // 100 millisecond blocks so that this thread
-            // can be response to a pending error request.
-            // Don't reduce this interval or the animations
-            // will end before this pause has completed.
-            int SLEEP_INTERVAL = 100;
-            long interval = Math.min(SLEEP_INTERVAL, duration);
-            while (duration > 0
-                    && !isCancelled.get()
-                    && !Thread.interrupted()) {
-                Thread.sleep(Math.min(interval, duration));
-                duration -= interval;
-            }
-            return !isCancelled.get() && !Thread.interrupted();
-        } catch (InterruptedException e) {
-            // Prevent uncontrolled shutdowns by trapping
-            // interrupted exceptions and mapping them to
-            // a false return value.
-            return false;
-        } finally {
-            // Uncomment if required for debugging.
-            //if (isCancelled.get()) {
-            //    Log.i(TAG, "pauseThread interrupted by isCancelled == TRUE.");
-            //}
-            //if (Thread.interrupted()) {
-            //    Log.i(TAG, "pauseThread interrupted by Thread.interrupted() == TRUE.");
-            //}
-        }
+        // Prevent uncontrolled shutdowns by mapping interrupts
+        // to a false return value.
+        boolean completed = Controller.isVirtualTimeMode()
+                ? VirtualClock.pause(duration, isCancelled)
+                : PauseScheduler.pause(duration, isCancelled);
+
+        return completed && !Thread.interrupted();
     }
 
     /**
@@ -305,13 +301,81 @@ public abstract class BeingComponent
                 // Only set the state if pauseThread returns true
                 // which means that it wasn't prematurely cancelled
                 // by a shutdown request.
-                if (pauseThread(mDuration, this::isCancelled)) {
-                    Controller.log("setState[OUT]: " + this);
+                mPausedThread = Thread.currentThread();
+                try {
+                    if (pauseThread(mDuration, this::isCancelled)) {
+                        Controller.log("setState[OUT]: " + this);
+                    }
+                } finally {
+                    mPausedThread = null;
                 }
             }
         }
     }
 
+    /**
+     * Asynchronous version of {@link #setState} for beings that don't
+     * run on a thread of their own. Instead of pausing the calling
+     * thread for the state's duration, this method returns a future
+     * that completes on the given executor once the duration has
+     * elapsed, or immediately if the being has been cancelled.
+     *
+     * @param state    BeingState to move to.
+     * @param executor The executor that runs dependent actions.
+     * @return A future that completes when the state's duration
+     * has elapsed.
+     */
+    public CompletableFuture<Void> setStateAsync(State state, Executor executor) {
+        switch (state) {
+            case BUSY: {
+                // Chain the same 3 states set by a BUSY setState call.
+                return setStateAsync(ACQUIRING, executor)
+                        .thenCompose(v -> setStateAsync(GAZING, executor))
+                        .thenCompose(v -> setStateAsync(RELEASING, executor));
+            }
+            case REMOVED: {
+                // Never has a duration.
+                setState(state);
+                return CompletableFuture.completedFuture(null);
+            }
+
+            default: // Normal state processing.
+        }
+
+        if (isRemoved()) {
+            throw new IllegalStateException(
+                    "Component has been REMOVED and " +
+                            "cannot be set to any new state");
+        }
+
+        mDuration = state.duration();
+
+        if (isCancelled()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        // Set state triggers snapshot generate/push mechanism.
+        super.setState(state, null, null);
+
+        if (mDuration <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        CompletableFuture<Void> delay = Controller.isVirtualTimeMode()
+                ? VirtualClock.delay(mDuration)
+                : PauseScheduler.delay(mDuration);
+        mPendingDelay = delay;
+
+        // Don't wait out the delay if shutdownNow was called
+        // before the pending delay was recorded.
+        if (isCancelled()) {
+            delay.complete(null);
+        }
+
+        // Move off the timer thread before continuing.
+        return delay.whenCompleteAsync((v, e) -> mPendingDelay = null, executor);
+    }
+
     /**
      * @return {code @true} if being has been requested to cancel
      * {@code false if not}.
@@ -334,6 +398,15 @@ public abstract class BeingComponent
 
         mCancelled = true;
 
+        // Wake the being if it is pausing in a state.
+        PauseScheduler.wake(mPausedThread);
+
+        // End the delay of an asynchronous state change.
+        CompletableFuture<Void> delay = mPendingDelay;
+        if (delay != null) {
+            delay.complete(null);
+        }
+
         Controller.log("ShutdownNow: " + this);
     }
 
@@ -88,6 +88,9 @@ public abstract class PalantirComponent extends
      */
     public void setBeingId(long beingId) {
         mBeingId = beingId;
+        // Palantiri never call setState, so flag the change
+        // for the next incremental model delta.
+        setModified();
     }
 
     /**
@@ -0,0 +1,154 @@
+package edu.vandy.simulator.model.implementation.snapshots;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import edu.vandy.simulator.model.base.BaseSnapshot;
+import edu.vandy.simulator.model.interfaces.ModelComponent;
+
+/**
+ * An immutable DTO object that captures only the model components
+ * that have changed since the last published snapshot. Deltas are
+ * sent to {@link edu.vandy.simulator.model.interfaces.ModelObserver}s
+ * when the model is running in incremental snapshot mode (see
+ * {@link edu.vandy.simulator.Controller#setFullSnapshotInterval}),
+ * which avoids rebuilding a snapshot for every being and palantir
+ * on each state transition.
+ * <p>
+ * Observers that need the complete model state can fold a delta
+ * into the last full snapshot they received by calling
+ * {@link #applyTo(ModelSnapshot)}.
+ */
+public class ModelDelta {
+    /**
+     * A static id generator.
+     */
+    private static final AtomicInteger sIdProvider = new AtomicInteger(0);
+
+    /**
+     * The unique id of this delta.
+     */
+    private final int mDeltaId = sIdProvider.getAndIncrement();
+
+    /**
+     * The component id that triggered the delta (for auditing).
+     */
+    private final long mTriggeredById;
+
+    /**
+     * Snapshots of only those beings that have changed.
+     */
+    private final Map<Long, BeingSnapshot> mBeings;
+
+    /**
+     * Snapshots of only those palantiri that have changed.
+     */
+    private final Map<Long, PalantirSnapshot> mPalantiri;
+
+    /**
+     * The current simulator snapshot (always included since
+     * it is small and is required to interpret the delta).
+     */
+    private final SimulatorSnapshot mSimulator;
+
+    /**
+     * Constructor that saves the passed changed component
+     * snapshots in a wrapper class that is then transmitted
+     * to the presentation layer.
+     *
+     * @param simulatorSnapshot A snapshot of the current simulator state.
+     * @param beingSnapshots    A map of changed being snapshots.
+     * @param palantirSnapshots A map of changed palantir snapshots.
+     * @param component         The model component that is triggering the delta.
+     */
+    public ModelDelta(@NotNull SimulatorSnapshot simulatorSnapshot,
+                      @NotNull Map<Long, BeingSnapshot> beingSnapshots,
+                      @NotNull Map<Long, PalantirSnapshot> palantirSnapshots,
+                      ModelComponent component) {
+        mSimulator = simulatorSnapshot;
+        mBeings = beingSnapshots;
+        mPalantiri = palantirSnapshots;
+        mTriggeredById = component.getId();
+    }
+
+    /**
+     * Folds this delta into the passed model snapshot and returns
+     * the resulting new model snapshot; the passed snapshot is not
+     * modified. Since deltas may be delivered out of order by
+     * concurrent being threads, a component snapshot is only
+     * replaced if the delta contains a more recent one.
+     *
+     * @param snapshot The model snapshot to apply this delta to.
+     * @return A new model snapshot reflecting this delta.
+     */
+    public ModelSnapshot applyTo(@NotNull ModelSnapshot snapshot) {
+        Map<Long, BeingSnapshot> beings = new HashMap<>(snapshot.getBeings());
+        mBeings.forEach((id, being) -> beings.merge(id, being, ModelDelta::newest));
+
+        Map<Long, PalantirSnapshot> palantiri = new HashMap<>(snapshot.getPalantiri());
+        mPalantiri.forEach((id, palantir) -> palantiri.merge(id, palantir, ModelDelta::newest));
+
+        SimulatorSnapshot simulator =
+                snapshot.getSimulator() == null
+                        || snapshot.getSimulator().getSnapshotId() < mSimulator.getSnapshotId()
+                        ? mSimulator
+                        : snapshot.getSimulator();
+
+        return new ModelSnapshot(simulator, beings, palantiri, mTriggeredById);
+    }
+
+    /**
+     * Merge function that keeps the most recently generated
+     * of two component snapshots.
+     */
+    private static <T extends BaseSnapshot<?, ?>> T newest(T oldValue, T newValue) {
+        return newValue.getSnapshotId() > oldValue.getSnapshotId() ? newValue : oldValue;
+    }
+
+    /**
+     * @return The simulator snapshot captured with this delta.
+     */
+    public SimulatorSnapshot getSimulator() {
+        return mSimulator;
+    }
+
+    /**
+     * @return A map of changed being component snapshots.
+     */
+    public Map<Long, BeingSnapshot> getBeings() {
+        return mBeings;
+    }
+
+    /**
+     * @return A map of changed palantir component snapshots.
+     */
+    public Map<Long, PalantirSnapshot> getPalantiri() {
+        return mPalantiri;
+    }
+
+    /**
+     * @return The unique delta id.
+     */
+    public long getDeltaId() {
+        return mDeltaId;
+    }
+
+    /**
+     * @return The id of the component that triggered this delta.
+     */
+    public long getTriggeredById() {
+        return mTriggeredById;
+    }
+
+    @Override
+    @NotNull
+    public String toString() {
+        return "ModelDelta"
+                + " triggered by " + mTriggeredById
+                + " beings=" + mBeings.size()
+                + " palantiri=" + mPalantiri.size();
+    }
+}
@@ -68,11 +68,31 @@ public class ModelSnapshot implements Cloneable {
                          @NotNull Map<Long, BeingSnapshot> beingSnapshots,
                          @NotNull Map<Long, PalantirSnapshot> palantirSnapshots,
                          ModelComponent component) {
+        this(simulatorSnapshot,
+                beingSnapshots,
+                palantirSnapshots,
+                component.getId());
+    }
+
+    /**
+     * Constructor that saves all the passed snapshots in a wrapper
+     * class and records the id of the triggering component. Used
+     * when a snapshot is assembled from a {@link ModelDelta}.
+     *
+     * @param simulatorSnapshot A snapshot of the current simulator state.
+     * @param beingSnapshots    A map of being snapshots.
+     * @param palantirSnapshots A map of palantir snapshots.
+     * @param triggeredById     The id of the triggering model component.
+     */
+    public ModelSnapshot(@NotNull SimulatorSnapshot simulatorSnapshot,
+                         @NotNull Map<Long, BeingSnapshot> beingSnapshots,
+                         @NotNull Map<Long, PalantirSnapshot> palantirSnapshots,
+                         long triggeredById) {
         // Model dependant attributes.
         mSimulator = simulatorSnapshot;
         mBeings = beingSnapshots;
         mPalantiri = palantirSnapshots;
-        mTriggeredById = component.getId();
+        mTriggeredById = triggeredById;
     }
 
     /**
@@ -1,5 +1,6 @@
 package edu.vandy.simulator.model.interfaces;
 
+import edu.vandy.simulator.model.implementation.snapshots.ModelDelta;
 import edu.vandy.simulator.model.implementation.snapshots.ModelSnapshot;
 
 /**
@@ -39,4 +40,20 @@ public interface ModelObserver {
      * @param snapshot An immutable snapshot of the model state.
      */
     void onModelChanged(ModelSnapshot snapshot);
+
+    /**
+     * Called instead of {@link #onModelChanged} for each state
+     * change when the model is running in incremental snapshot
+     * mode. The passed delta only contains the components that
+     * have changed and can be folded into the last received full
+     * snapshot using {@link ModelDelta#applyTo}. Full snapshots
+     * are still periodically delivered to {@link #onModelChanged}.
+     * <p>
+     * The default implementation ignores deltas so that existing
+     * observers only receive the periodic full snapshots.
+     *
+     * @param delta An immutable delta of the changed model state.
+     */
+    default void onModelDelta(ModelDelta delta) {
+    }
 }
@@ -0,0 +1,223 @@
+package edu.vandy.simulator.utils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * A shared timer that pauses being threads until a deadline without
+ * polling. Each paused thread parks once and is unparked either by
+ * the single scheduler thread when its deadline expires or by a call
+ * to {@link #wake} (e.g., when its being is shutdown). This replaces
+ * a sleep loop that woke every thread every 100 milliseconds to
+ * check for cancellation.
+ * <p>
+ * Asynchronous callers that must not block a thread can instead
+ * obtain a future that the scheduler thread completes at the
+ * deadline (see {@link #delay}).
+ */
+public class PauseScheduler {
+    /**
+     * Logging tag.
+     */
+    private static final String TAG = PauseScheduler.class.getName();
+
+    /**
+     * Pending pauses ordered by deadline.
+     */
+    private static final DelayQueue<Pause> sPauses = new DelayQueue<>();
+
+    /**
+     * Used to break deadline ties in FIFO order.
+     */
+    private static final AtomicLong sSequence = new AtomicLong();
+
+    /**
+     * The daemon thread that wakes paused threads at their deadlines.
+     * It is started lazily on the first pause.
+     */
+    private static Thread sTimerThread;
+
+    /**
+     * A utility class should always define a private constructor.
+     */
+    private PauseScheduler() {
+    }
+
+    /**
+     * Pauses the calling thread for the specified duration or until
+     * the pause is cancelled. The isCancelled supplier is checked
+     * each time the thread wakes, so a canceller must call
+     * {@link #wake} on the paused thread after setting the condition
+     * reported by the supplier.
+     *
+     * @param duration    The pause duration in milliseconds.
+     * @param isCancelled A Supplier that returns true if the pause
+     *                    should be ended prematurely.
+     * @return {@code true} if the full duration elapsed, {@code false}
+     * if the pause was cancelled or the thread was interrupted.
+     */
+    public static boolean pause(long duration, Supplier<Boolean> isCancelled) {
+        if (duration <= 0) {
+            return !isCancelled.get();
+        }
+
+        startTimerThread();
+
+        Pause pause = new Pause(Thread.currentThread(), null, duration);
+        sPauses.put(pause);
+
+        try {
+            while (!pause.mExpired) {
+                if (isCancelled.get() || Thread.currentThread().isInterrupted()) {
+                    return false;
+                }
+                LockSupport.park(pause);
+            }
+            return !isCancelled.get();
+        } finally {
+            if (!pause.mExpired) {
+                sPauses.remove(pause);
+            }
+        }
+    }
+
+    /**
+     * Returns a future that is completed once the specified duration
+     * has elapsed, without blocking any thread in the meantime. This
+     * is a Java 8 substitute for a {@code
+     * CompletableFuture.delayedExecutor}. The future is completed by
+     * the shared scheduler thread, so any time consuming dependent
+     * action should be attached with one of the *Async methods. The
+     * delay can be ended early by completing the future, e.g., when
+     * its being is shutdown.
+     *
+     * @param duration The delay in milliseconds.
+     * @return A future that completes after the delay.
+     */
+    public static CompletableFuture<Void> delay(long duration) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        if (duration <= 0) {
+            future.complete(null);
+            return future;
+        }
+
+        startTimerThread();
+
+        Pause pause = new Pause(null, future, duration);
+        sPauses.put(pause);
+
+        // Discard the pending pause if the delay is ended early.
+        future.whenComplete((result, throwable) -> {
+            if (!pause.mExpired) {
+                sPauses.remove(pause);
+            }
+        });
+
+        return future;
+    }
+
+    /**
+     * Wakes the specified thread if it is currently paused so that
+     * it immediately rechecks its cancellation condition.
+     *
+     * @param thread A thread that may be paused (may be null).
+     */
+    public static void wake(Thread thread) {
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * Starts the timer thread if it is not already running.
+     */
+    private static synchronized void startTimerThread() {
+        if (sTimerThread == null) {
+            sTimerThread = new Thread(PauseScheduler::runTimer, TAG);
+            sTimerThread.setDaemon(true);
+            sTimerThread.start();
+        }
+    }
+
+    /**
+     * The timer thread loop that wakes each paused thread
+     * when its deadline is reached.
+     */
+    private static void runTimer() {
+        while (true) {
+            try {
+                Pause pause = sPauses.take();
+                pause.mExpired = true;
+                if (pause.mFuture != null) {
+                    pause.mFuture.complete(null);
+                } else {
+                    LockSupport.unpark(pause.mThread);
+                }
+            } catch (InterruptedException e) {
+                // The timer is shared by all simulations
+                // and is never stopped.
+                Log.w(TAG, "Ignoring timer thread interrupt.");
+            }
+        }
+    }
+
+    /**
+     * A single pending pause.
+     */
+    private static class Pause implements Delayed {
+        /**
+         * The paused thread (null for an asynchronous delay).
+         */
+        final Thread mThread;
+
+        /**
+         * The future completed when an asynchronous delay expires
+         * (null for a paused thread).
+         */
+        final CompletableFuture<Void> mFuture;
+
+        /**
+         * The System.nanoTime() at which the pause expires.
+         */
+        final long mDeadline;
+
+        /**
+         * Orders pauses with the same deadline.
+         */
+        final long mSequence;
+
+        /**
+         * Set by the timer thread before it wakes the paused thread.
+         */
+        volatile boolean mExpired;
+
+        /**
+         * @param thread   The paused thread.
+         * @param future   The future of an asynchronous delay.
+         * @param duration The pause duration in milliseconds.
+         */
+        Pause(Thread thread, CompletableFuture<Void> future, long duration) {
+            mThread = thread;
+            mFuture = future;
+            mDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(duration);
+            mSequence = sSequence.getAndIncrement();
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(mDeadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            Pause pause = (Pause) other;
+            int result = Long.compare(mDeadline - pause.mDeadline, 0);
+            return result != 0 ? result : Long.compare(mSequence, pause.mSequence);
+        }
+    }
+}
@@ -0,0 +1,364 @@
+package edu.vandy.simulator.utils;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * A simulated clock for discrete-event runs. Being pauses do not
+ * sleep; instead each pause is queued with a virtual deadline and
+ * the clock jumps directly to the earliest deadline as soon as
+ * every running being is blocked, either paused or waiting in a
+ * palantiri manager acquire call. Beings still run on real threads
+ * and go through the real palantiri manager code, but a simulation
+ * spanning hours of virtual time completes as fast as the beings
+ * can perform their state transitions.
+ * <p>
+ * The clock is reset with the number of beings that the being
+ * manager will run concurrently so that beings which have not yet
+ * been started (or a pool thread moving on to its next being) are
+ * counted as running and the clock never advances ahead of them.
+ * <p>
+ * Releasing a palantir while beings are waiting grants a credit
+ * that keeps the clock from advancing until one of the waiters has
+ * returned from its acquire call, so a pending handoff is never
+ * mistaken for a fully blocked model.
+ * <p>
+ * Beings that run asynchronously (without a thread of their own)
+ * use {@link #delay} instead of {@link #pause}, and are counted as
+ * blocked while their delay is pending.
+ */
+public class VirtualClock {
+    /**
+     * Guards all clock state.
+     */
+    private static final ReentrantLock sLock = new ReentrantLock();
+
+    /**
+     * Pending pauses ordered by virtual deadline.
+     */
+    private static final PriorityQueue<Pause> sPauses = new PriorityQueue<>();
+
+    /**
+     * The current virtual time in milliseconds.
+     */
+    private static volatile long sNow;
+
+    /**
+     * Used to break deadline ties in FIFO order.
+     */
+    private static long sSequence;
+
+    /**
+     * The number of running beings, including reserved slots
+     * for beings that are expected to start.
+     */
+    private static int sRunning;
+
+    /**
+     * The number of running slots reserved for beings that
+     * are expected to start.
+     */
+    private static int sReserved;
+
+    /**
+     * The number of beings that have not yet been started.
+     */
+    private static int sUnstarted;
+
+    /**
+     * The number of beings blocked in a palantiri manager acquire.
+     */
+    private static int sWaiting;
+
+    /**
+     * The number of released palantiri not yet claimed by a waiter.
+     */
+    private static int sCredits;
+
+    /**
+     * A utility class should always define a private constructor.
+     */
+    private VirtualClock() {
+    }
+
+    /**
+     * Resets the clock to 0 and discards all bookkeeping. Called
+     * before each simulation run.
+     *
+     * @param concurrency The number of beings that will be
+     *                    run concurrently.
+     * @param beings      The total number of beings.
+     */
+    public static void reset(int concurrency, int beings) {
+        sLock.lock();
+        try {
+            sPauses.clear();
+            sNow = 0;
+            sSequence = 0;
+            sRunning = concurrency;
+            sReserved = concurrency;
+            sUnstarted = beings;
+            sWaiting = 0;
+            sCredits = 0;
+        } finally {
+            sLock.unlock();
+        }
+    }
+
+    /**
+     * @return The current virtual time in milliseconds.
+     */
+    public static long now() {
+        return sNow;
+    }
+
+    /**
+     * Called by a being thread when it starts running.
+     */
+    public static void beingStarted() {
+        sLock.lock();
+        try {
+            sUnstarted--;
+            if (sReserved > 0) {
+                sReserved--;
+            } else {
+                sRunning++;
+            }
+        } finally {
+            sLock.unlock();
+        }
+    }
+
+    /**
+     * Called by a being thread when it stops running.
+     */
+    public static void beingFinished() {
+        sLock.lock();
+        try {
+            if (sUnstarted > 0) {
+                // Keep this slot for the next being
+                // that the manager will start.
+                sReserved++;
+            } else {
+                sRunning--;
+                advanceIfBlocked();
+            }
+        } finally {
+            sLock.unlock();
+        }
+    }
+
+    /**
+     * Called by a being thread immediately before it calls
+     * a palantiri manager acquire method.
+     */
+    public static void acquireStarted() {
+        sLock.lock();
+        try {
+            sWaiting++;
+            advanceIfBlocked();
+        } finally {
+            sLock.unlock();
+        }
+    }
+
+    /**
+     * Called by a being thread when its palantiri manager
+     * acquire call has returned (normally or not).
+     */
+    public static void acquireFinished() {
+        sLock.lock();
+        try {
+            sWaiting--;
+            if (sCredits > 0) {
+                sCredits--;
+            }
+        } finally {
+            sLock.unlock();
+        }
+    }
+
+    /**
+     * Called by a being thread immediately before it releases
+     * a palantir so that a waiting being that receives the
+     * palantir is considered runnable.
+     */
+    public static void releaseStarted() {
+        sLock.lock();
+        try {
+            if (sWaiting > sCredits) {
+                sCredits++;
+            }
+        } finally {
+            sLock.unlock();
+        }
+    }
+
+    /**
+     * Pauses the calling thread for the specified virtual duration
+     * or until the pause is cancelled. A canceller must call
+     * {@link PauseScheduler#wake} on the paused thread after setting
+     * the condition reported by the isCancelled supplier.
+     *
+     * @param duration    The pause duration in virtual milliseconds.
+     * @param isCancelled A Supplier that returns true if the pause
+     *                    should be ended prematurely.
+     * @return {@code true} if the full duration elapsed, {@code false}
+     * if the pause was cancelled or the thread was interrupted.
+     */
+    public static boolean pause(long duration, Supplier<Boolean> isCancelled) {
+        if (duration <= 0) {
+            return !isCancelled.get();
+        }
+
+        Pause pause;
+
+        sLock.lock();
+        try {
+            pause = new Pause(Thread.currentThread(), null, sNow + duration, sSequence++);
+            sPauses.add(pause);
+            advanceIfBlocked();
+        } finally {
+            sLock.unlock();
+        }
+
+        try {
+            while (!pause.mExpired) {
+                if (isCancelled.get() || Thread.currentThread().isInterrupted()) {
+                    return false;
+                }
+                LockSupport.park(pause);
+            }
+            return !isCancelled.get();
+        } finally {
+            if (!pause.mExpired) {
+                sLock.lock();
+                try {
+                    sPauses.remove(pause);
+                    advanceIfBlocked();
+                } finally {
+                    sLock.unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns a future that is completed once the clock has advanced
+     * by the specified virtual duration. This is the asynchronous
+     * counterpart of {@link #pause} for beings that don't block a
+     * thread. The future may be completed while the clock lock is
+     * held, so dependent actions must be attached with one of the
+     * *Async methods. The delay can be ended early by completing the
+     * future.
+     *
+     * @param duration The delay in virtual milliseconds.
+     * @return A future that completes after the delay.
+     */
+    public static CompletableFuture<Void> delay(long duration) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        if (duration <= 0) {
+            future.complete(null);
+            return future;
+        }
+
+        Pause pause;
+
+        sLock.lock();
+        try {
+            pause = new Pause(null, future, sNow + duration, sSequence++);
+            sPauses.add(pause);
+            advanceIfBlocked();
+        } finally {
+            sLock.unlock();
+        }
+
+        // Discard the pending pause if the delay is ended early.
+        future.whenComplete((result, throwable) -> {
+            if (!pause.mExpired) {
+                sLock.lock();
+                try {
+                    sPauses.remove(pause);
+                    advanceIfBlocked();
+                } finally {
+                    sLock.unlock();
+                }
+            }
+        });
+
+        return future;
+    }
+
+    /**
+     * Advances the clock to the earliest pending deadline and wakes
+     * every pause that expires at that time, but only if no running
+     * being can make progress without the clock advancing. Must be
+     * called while holding the lock.
+     */
+    private static void advanceIfBlocked() {
+        int runnable = sRunning - sPauses.size() - sWaiting + sCredits;
+        if (runnable > 0 || sPauses.isEmpty()) {
+            return;
+        }
+
+        long deadline = sPauses.peek().mDeadline;
+        sNow = Math.max(sNow, deadline);
+
+        while (!sPauses.isEmpty() && sPauses.peek().mDeadline == deadline) {
+            Pause pause = sPauses.poll();
+            pause.mExpired = true;
+            if (pause.mFuture != null) {
+                pause.mFuture.complete(null);
+            } else {
+                LockSupport.unpark(pause.mThread);
+            }
+        }
+    }
+
+    /**
+     * A single pending pause.
+     */
+    private static class Pause implements Comparable<Pause> {
+        /**
+         * The paused thread (null for an asynchronous delay).
+         */
+        final Thread mThread;
+
+        /**
+         * The future completed when an asynchronous delay expires
+         * (null for a paused thread).
+         */
+        final CompletableFuture<Void> mFuture;
+
+        /**
+         * The virtual time at which the pause expires.
+         */
+        final long mDeadline;
+
+        /**
+         * Orders pauses with the same deadline.
+         */
+        final long mSequence;
+
+        /**
+         * Set once the clock has reached the deadline.
+         */
+        volatile boolean mExpired;
+
+        Pause(Thread thread, CompletableFuture<Void> future, long deadline, long sequence) {
+            mThread = thread;
+            mFuture = future;
+            mDeadline = deadline;
+            mSequence = sequence;
+        }
+
+        @Override
+        public int compareTo(Pause other) {
+            int result = Long.compare(mDeadline, other.mDeadline);
+            return result != 0 ? result : Long.compare(mSequence, other.mSequence);
+        }
+    }
+}
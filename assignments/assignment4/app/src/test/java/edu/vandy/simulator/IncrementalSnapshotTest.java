@@ -0,0 +1,112 @@
+package edu.vandy.simulator;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.vandy.simulator.managers.beings.Being;
+import edu.vandy.simulator.managers.beings.BeingManager;
+import edu.vandy.simulator.managers.palantiri.PalantiriManager;
+import edu.vandy.simulator.model.implementation.snapshots.ModelDelta;
+import edu.vandy.simulator.model.implementation.snapshots.ModelSnapshot;
+import edu.vandy.simulator.model.interfaces.ModelObserver;
+
+import static edu.vandy.simulator.model.implementation.components.BeingComponent.State.IDLE;
+import static edu.vandy.simulator.model.implementation.components.BeingComponent.State.WAITING;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class IncrementalSnapshotTest {
+    private final static int BEING_COUNT = 4;
+    private final static int PALANTIRI_COUNT = 2;
+    private final static int INTERVAL = 3;
+
+    private final List<ModelSnapshot> mSnapshots = new ArrayList<>();
+    private final List<ModelDelta> mDeltas = new ArrayList<>();
+
+    private Simulator mSimulator;
+
+    @Before
+    public void setup() {
+        Controller.setLogging(false);
+        Controller.setPerformanceMode(true);
+        Controller.setSnapshotRate(0);
+        Controller.setFullSnapshotInterval(INTERVAL);
+
+        mSimulator = new Simulator(new ModelObserver() {
+            @Override
+            public void onModelChanged(ModelSnapshot snapshot) {
+                mSnapshots.add(snapshot);
+            }
+
+            @Override
+            public void onModelDelta(ModelDelta delta) {
+                mDeltas.add(delta);
+            }
+        });
+        mSimulator.buildModel(BeingManager.Factory.Type.VIRTUAL_THREADS,
+                PalantiriManager.Factory.Type.ATOMIC_BITMAP,
+                BEING_COUNT, PALANTIRI_COUNT, BEING_COUNT, 1);
+
+        // Publish the palantiri once so that they are no longer
+        // modified and discard the initial publications.
+        mSimulator.getBeings().get(0).setState(IDLE);
+        mSnapshots.clear();
+        mDeltas.clear();
+    }
+
+    @After
+    public void tearDown() {
+        Controller.setFullSnapshotInterval(0);
+        Controller.setPerformanceMode(false);
+    }
+
+    @Test
+    public void testDeltaOnlyContainsTriggeringBeing() {
+        Being being = mSimulator.getBeings().get(1);
+        being.setState(WAITING);
+
+        assertEquals(1, mDeltas.size());
+        ModelDelta delta = mDeltas.get(0);
+        assertEquals(being.getId(), delta.getTriggeredById());
+        assertEquals(1, delta.getBeings().size());
+        assertEquals(WAITING, delta.getBeings().get(being.getId()).getState());
+        assertTrue(delta.getPalantiri().isEmpty());
+    }
+
+    @Test
+    public void testFullSnapshotEveryInterval() {
+        Being being = mSimulator.getBeings().get(2);
+
+        // The delta published by setup() was the first one, so a
+        // full snapshot follows every INTERVAL deltas counting it.
+        for (int i = 1; i <= 2 * INTERVAL; i++) {
+            being.setState(i % 2 == 0 ? WAITING : IDLE);
+            assertEquals(i, mDeltas.size());
+            assertEquals((i + 1) / INTERVAL, mSnapshots.size());
+        }
+
+        // Each full snapshot contains every component.
+        for (ModelSnapshot snapshot : mSnapshots) {
+            assertEquals(BEING_COUNT, snapshot.getBeings().size());
+            assertEquals(PALANTIRI_COUNT, snapshot.getPalantiri().size());
+        }
+    }
+
+    @Test
+    public void testDeltaAppliesToLastSnapshot() {
+        ModelSnapshot base = mSimulator.updateModelSnapshot(mSimulator);
+        Being being = mSimulator.getBeings().get(3);
+        being.setState(WAITING);
+
+        ModelSnapshot applied = mDeltas.get(0).applyTo(base);
+
+        assertEquals(WAITING, applied.getBeings().get(being.getId()).getState());
+        assertEquals(BEING_COUNT, applied.getBeings().size());
+        assertEquals(base.getBeings().get(mSimulator.getBeings().get(0).getId()),
+                applied.getBeings().get(mSimulator.getBeings().get(0).getId()));
+    }
+}
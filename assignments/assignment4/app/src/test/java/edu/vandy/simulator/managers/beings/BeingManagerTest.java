@@ -0,0 +1,117 @@
+package edu.vandy.simulator.managers.beings;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BeingManagerTest {
+    private final static int BEING_COUNT = 3;
+
+    private TestMgr mManager;
+
+    @Before
+    public void setup() {
+        mManager = new TestMgr();
+        mManager.mBeings = mManager.makeBeings(BEING_COUNT);
+    }
+
+    @Test
+    public void testAwaitReturnsWhenNoBeingsRunning() throws Exception {
+        assertTrue(mManager.awaitBeingsStopped(0));
+    }
+
+    @Test
+    public void testAwaitTimesOutWhileBeingRuns() throws Exception {
+        Being being = mManager.getBeings().get(0);
+        being.setRunning(true);
+
+        assertFalse(mManager.awaitBeingsStopped(50));
+
+        being.setRunning(false);
+        assertTrue(mManager.awaitBeingsStopped(0));
+    }
+
+    @Test(timeout = 10000)
+    public void testLastBeingToStopWakesWaiter() throws Exception {
+        CountDownLatch started = new CountDownLatch(BEING_COUNT);
+        CountDownLatch stop = new CountDownLatch(1);
+
+        // Run each being on a thread of its own so that the beings
+        // stop in threads other than the waiting one.
+        for (Being being : mManager.getBeings()) {
+            new Thread(() -> {
+                being.setRunning(true);
+                started.countDown();
+                try {
+                    stop.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                being.setRunning(false);
+            }).start();
+        }
+
+        started.await();
+        assertEquals(BEING_COUNT, mManager.getRunningBeingCount());
+
+        stop.countDown();
+        assertTrue(mManager.awaitBeingsStopped(5000));
+    }
+
+    @Test
+    public void testLateStopAfterResetIsIgnored() throws Exception {
+        Being late = mManager.getBeings().get(0);
+        late.setRunning(true);
+
+        // The next run starts before the being from the previous
+        // run has stopped.
+        mManager.reset();
+        Being being = mManager.getBeings().get(1);
+        being.setRunning(true);
+
+        late.setRunning(false);
+        assertFalse(mManager.awaitBeingsStopped(50));
+
+        being.setRunning(false);
+        assertTrue(mManager.awaitBeingsStopped(0));
+
+        // The count is back to zero rather than negative, so a
+        // being of this run still blocks the wait.
+        being.setRunning(true);
+        assertFalse(mManager.awaitBeingsStopped(50));
+        being.setRunning(false);
+    }
+
+    /**
+     * A being manager whose beings are started and stopped by the
+     * tests.
+     */
+    private static class TestMgr extends BeingManager<TestBeing> {
+        @Override
+        public TestBeing newBeing() {
+            return new TestBeing(this);
+        }
+
+        @Override
+        public void runSimulation() {
+        }
+
+        @Override
+        public void shutdownNow() {
+        }
+    }
+
+    /**
+     * A being that does nothing.
+     */
+    private static class TestBeing extends Being {
+        TestBeing(BeingManager manager) {
+            super(manager);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package edu.vandy.simulator.managers.palantiri;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Adds the asynchronous acquire behaviour that every PalantiriManager
+ * supporting {@link PalantiriManager#acquireAsync} must provide to
+ * the {@link PalantiriManagerContractTest}.
+ *
+ * @param <M> The type of the manager under test.
+ */
+public abstract class AsyncPalantiriManagerContractTest<M extends PalantiriManager>
+        extends PalantiriManagerContractTest<M> {
+    // Small enough for many asynchronous beings to contend for palantiri.
+    private final static int ASYNC_PALANTIRI_COUNT = 4;
+
+    @Test
+    public void testSupportsAsyncAcquire() {
+        assertTrue(mManager.supportsAsyncAcquire());
+    }
+
+    @Test
+    public void testAsyncAcquireCompletesImmediately() throws Exception {
+        CompletableFuture<Palantir> future = mManager.acquirePalantirAsync(0);
+        assertTrue(future.isDone());
+        assertEquals(getPalantiriCount() - 1, availablePalantiri());
+
+        mManager.release(future.join());
+        assertEquals(getPalantiriCount(), availablePalantiri());
+    }
+
+    @Test
+    public void testAsyncAcquireCompletesOnRelease() throws Exception {
+        List<Palantir> held = acquireAll();
+
+        CompletableFuture<Palantir> first = mManager.acquirePalantirAsync(0);
+        CompletableFuture<Palantir> second = mManager.acquirePalantirAsync(1);
+        assertFalse(first.isDone());
+        assertFalse(second.isDone());
+
+        // Released palantiri are handed over in FIFO order without
+        // ever being returned to the pool.
+        Palantir last = held.get(held.size() - 1);
+        mManager.release(last);
+        assertSame(last, first.getNow(null));
+        assertFalse(second.isDone());
+
+        mManager.release(held.get(0));
+        assertSame(held.get(0), second.getNow(null));
+        assertEquals(0, availablePalantiri());
+    }
+
+    @Test
+    public void testCancelledAsyncAcquireIsSkipped() throws Exception {
+        List<Palantir> held = acquireAll();
+
+        CompletableFuture<Palantir> cancelled = mManager.acquirePalantirAsync(0);
+        CompletableFuture<Palantir> waiting = mManager.acquirePalantirAsync(1);
+        cancelled.cancel(false);
+
+        mManager.release(held.get(0));
+        assertSame(held.get(0), waiting.getNow(null));
+
+        // With no pending futures left the palantir is available again.
+        mManager.release(held.get(1));
+        assertEquals(1, availablePalantiri());
+    }
+
+    @Test
+    public void testShutdownCancelsPendingFutures() throws Exception {
+        acquireAll();
+
+        CompletableFuture<Palantir> future = mManager.acquirePalantirAsync(0);
+        mManager.shutdownNow();
+
+        try {
+            future.join();
+            fail("Expected the pending future to be cancelled.");
+        } catch (CancellationException e) {
+            assertTrue(future.isCancelled());
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void testManyAsyncBeingsOnSmallPool() {
+        final int beings = 2_000;
+        final int iterations = 20;
+        mManager.buildModel(null, ASYNC_PALANTIRI_COUNT);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        AtomicInteger gazing = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>(beings);
+        for (int i = 0; i < beings; i++) {
+            futures.add(gaze(i, iterations, executor, gazing, errors));
+        }
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        executor.shutdown();
+
+        assertEquals(0, errors.get());
+        assertEquals(ASYNC_PALANTIRI_COUNT, availablePalantiri());
+    }
+
+    /**
+     * Acquires every palantir in the pool.
+     */
+    private List<Palantir> acquireAll() throws Exception {
+        List<Palantir> held = new ArrayList<>();
+        for (int i = 0; i < getPalantiriCount(); i++) {
+            held.add(mManager.acquire());
+        }
+        return held;
+    }
+
+    /**
+     * Asynchronously acquires and releases a palantir the given
+     * number of times, checking that no more beings gaze at once
+     * than there are palantiri.
+     */
+    private CompletableFuture<Void> gaze(long beingId,
+                                         int iterations,
+                                         ExecutorService executor,
+                                         AtomicInteger gazing,
+                                         AtomicInteger errors) {
+        if (iterations == 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return mManager.acquirePalantirAsync(beingId)
+                .thenComposeAsync(palantir -> {
+                    if (gazing.incrementAndGet() > mManager.getPalantirCount()) {
+                        errors.incrementAndGet();
+                    }
+                    gazing.decrementAndGet();
+                    mManager.releasePalantir(palantir);
+                    return gaze(beingId, iterations - 1, executor, gazing, errors);
+                }, executor);
+    }
+}
@@ -0,0 +1,185 @@
+package edu.vandy.simulator.managers.palantiri;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the acquire and release behaviour that every complete
+ * PalantiriManager must provide. The test of each manager extends
+ * this class and only adds the cases that are specific to that
+ * manager.
+ *
+ * @param <M> The type of the manager under test.
+ */
+public abstract class PalantiriManagerContractTest<M extends PalantiriManager> {
+    // Small enough for the concurrent test to contend for palantiri.
+    private final static int CONCURRENT_PALANTIRI_COUNT = 5;
+
+    protected M mManager;
+
+    /**
+     * @return A new instance of the manager under test.
+     */
+    protected abstract M newManager();
+
+    /**
+     * @return The number of palantiri to build the model with.
+     */
+    protected abstract int getPalantiriCount();
+
+    /**
+     * @return The number of palantiri that mManager currently has
+     * available.
+     */
+    protected abstract int availablePalantiri();
+
+    @Before
+    public void setup() {
+        mManager = newManager();
+        mManager.buildModel(null, getPalantiriCount());
+    }
+
+    @Test
+    public void testAcquireAllPalantiri() throws Exception {
+        Set<Palantir> acquired = new HashSet<>();
+        for (int i = 0; i < getPalantiriCount(); i++) {
+            assertTrue("Palantir acquired twice", acquired.add(mManager.acquire()));
+        }
+
+        assertEquals(0, availablePalantiri());
+        assertNull(mManager.tryAcquire(10, TimeUnit.MILLISECONDS));
+
+        for (Palantir palantir : acquired) {
+            mManager.release(palantir);
+        }
+
+        assertEquals(getPalantiriCount(), availablePalantiri());
+    }
+
+    @Test
+    public void testDoubleReleaseThrows() throws Exception {
+        Palantir palantir = mManager.acquire();
+        mManager.release(palantir);
+
+        try {
+            mManager.release(palantir);
+            fail("Releasing a palantir twice should throw");
+        } catch (IllegalStateException e) {
+            // Expected.
+        }
+
+        assertEquals(getPalantiriCount(), availablePalantiri());
+    }
+
+    @Test(timeout = 10000)
+    public void testAcquireBlocksUntilRelease() throws Exception {
+        List<Palantir> palantiri = new ArrayList<>();
+        for (int i = 0; i < getPalantiriCount(); i++) {
+            palantiri.add(mManager.acquire());
+        }
+
+        AtomicReference<Palantir> result = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+        Thread thread = new Thread(() -> {
+            try {
+                result.set(mManager.acquire());
+            } catch (Exception e) {
+                // Leave the result null.
+            } finally {
+                done.countDown();
+            }
+        });
+        thread.start();
+
+        assertFalse("Acquire should block when no palantiri are available",
+                done.await(100, TimeUnit.MILLISECONDS));
+
+        mManager.release(palantiri.get(0));
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertSame(palantiri.get(0), result.get());
+    }
+
+    @Test(timeout = 10000)
+    public void testInterruptAbandonsAcquire() throws Exception {
+        for (int i = 0; i < getPalantiriCount(); i++) {
+            mManager.acquire();
+        }
+
+        // Managers either throw an InterruptedException or convert
+        // the interrupt into a CancellationException.
+        AtomicBoolean abandoned = new AtomicBoolean();
+        Thread thread = new Thread(() -> {
+            try {
+                mManager.acquire();
+            } catch (InterruptedException | CancellationException e) {
+                abandoned.set(true);
+            }
+        });
+        thread.start();
+        Thread.sleep(100);
+        thread.interrupt();
+        thread.join();
+
+        assertTrue(abandoned.get());
+        assertEquals(0, availablePalantiri());
+    }
+
+    @Test(timeout = 30000)
+    public void testConcurrentAccess() throws InterruptedException {
+        final int threadCount = 16;
+        final int accessCount = 10_000;
+        mManager.buildModel(null, CONCURRENT_PALANTIRI_COUNT);
+
+        AtomicInteger gazing = new AtomicInteger();
+        Set<Palantir> inUse = ConcurrentHashMap.newKeySet();
+        AtomicBoolean failed = new AtomicBoolean();
+        List<Thread> threads = new ArrayList<>();
+
+        for (int i = 0; i < threadCount; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    for (int j = 0; j < accessCount; j++) {
+                        Palantir palantir = mManager.acquire();
+                        int count = gazing.incrementAndGet();
+                        if (!inUse.add(palantir) || count > CONCURRENT_PALANTIRI_COUNT) {
+                            failed.set(true);
+                        }
+                        gazing.decrementAndGet();
+                        inUse.remove(palantir);
+                        mManager.release(palantir);
+                    }
+                } catch (Exception e) {
+                    failed.set(true);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertFalse(failed.get());
+        assertEquals(CONCURRENT_PALANTIRI_COUNT, availablePalantiri());
+    }
+}
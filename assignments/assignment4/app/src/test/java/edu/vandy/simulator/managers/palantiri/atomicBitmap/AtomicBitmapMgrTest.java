@@ -0,0 +1,189 @@
+package edu.vandy.simulator.managers.palantiri.atomicBitmap;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import edu.vandy.simulator.managers.palantiri.AsyncPalantiriManagerContractTest;
+import edu.vandy.simulator.managers.palantiri.Palantir;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class AtomicBitmapMgrTest
+        extends AsyncPalantiriManagerContractTest<AtomicBitmapMgr> {
+    // Spans multiple bitmap words with a partially used last word.
+    private final static int PALANTIRI_COUNT = 130;
+
+    @Override
+    protected AtomicBitmapMgr newManager() {
+        return new AtomicBitmapMgr();
+    }
+
+    @Override
+    protected int getPalantiriCount() {
+        return PALANTIRI_COUNT;
+    }
+
+    @Override
+    protected int availablePalantiri() {
+        return mManager.availablePalantiri();
+    }
+
+    @Test
+    public void testReleaseAcrossWords() throws Exception {
+        List<Palantir> held = mManager.acquirePalantiri(0, PALANTIRI_COUNT);
+
+        // The last palantir lives in the partially used last word.
+        mManager.release(held.get(PALANTIRI_COUNT - 1));
+        assertSame(held.get(PALANTIRI_COUNT - 1), mManager.acquire());
+
+        mManager.release(held.get(77));
+        assertSame(held.get(77), mManager.acquire());
+    }
+
+    @Test
+    public void testShutdownCancelsWaiters() throws Exception {
+        for (int i = 0; i < PALANTIRI_COUNT; i++) {
+            mManager.acquire();
+        }
+
+        AtomicBoolean cancelled = new AtomicBoolean(false);
+        Thread thread = new Thread(() -> {
+            try {
+                mManager.acquire();
+            } catch (CancellationException e) {
+                cancelled.set(true);
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+        });
+        thread.start();
+        Thread.sleep(100);
+
+        mManager.shutdownNow();
+        thread.join(5000);
+
+        assertFalse(thread.isAlive());
+        assertTrue(cancelled.get());
+    }
+
+    @Test
+    public void testBatchAcquireAcrossWords() throws Exception {
+        List<Palantir> batch = mManager.acquirePalantiri(0, 100);
+
+        assertEquals(100, batch.size());
+        assertEquals(100, new HashSet<>(batch).size());
+        assertEquals(PALANTIRI_COUNT - 100, mManager.availablePalantiri());
+
+        mManager.releasePalantiri(batch);
+        assertEquals(PALANTIRI_COUNT, mManager.availablePalantiri());
+    }
+
+    @Test
+    public void testTryAcquireIsAllOrNothing() throws Exception {
+        List<Palantir> batch = mManager.tryAcquirePalantiri(PALANTIRI_COUNT - 2);
+        assertEquals(PALANTIRI_COUNT - 2, batch.size());
+
+        assertTrue(mManager.tryAcquirePalantiri(3).isEmpty());
+        assertEquals(2, mManager.availablePalantiri());
+
+        assertEquals(2, mManager.tryAcquirePalantiri(2).size());
+        assertEquals(0, mManager.availablePalantiri());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBatchLargerThanPoolThrows() {
+        mManager.tryAcquirePalantiri(PALANTIRI_COUNT + 1);
+    }
+
+    @Test
+    public void testBatchAcquireBlocksUntilEnoughReleased() throws Exception {
+        List<Palantir> held = mManager.acquirePalantiri(0, PALANTIRI_COUNT);
+
+        AtomicReference<List<Palantir>> result = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+        Thread thread = new Thread(() -> {
+            result.set(mManager.acquirePalantiri(1, 3));
+            done.countDown();
+        });
+        thread.start();
+
+        mManager.releasePalantiri(held.subList(0, 2));
+        assertFalse("Batch acquire should wait for all 3 palantiri",
+                done.await(100, TimeUnit.MILLISECONDS));
+
+        mManager.release(held.get(2));
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(new HashSet<>(held.subList(0, 3)), new HashSet<>(result.get()));
+    }
+
+    @Test
+    public void testConcurrentBatchAndSingleAcquire() throws Exception {
+        int threads = 8;
+        int iterations = 5_000;
+        int palantiri = 6;
+
+        mManager = new AtomicBitmapMgr();
+        mManager.buildModel(null, palantiri);
+
+        AtomicInteger inUse = new AtomicInteger(0);
+        AtomicInteger errors = new AtomicInteger(0);
+        Thread[] workers = new Thread[threads];
+
+        for (int t = 0; t < threads; t++) {
+            int count = t % 3 + 1;
+            workers[t] = new Thread(() -> {
+                try {
+                    for (int i = 0; i < iterations; i++) {
+                        List<Palantir> batch = mManager.acquirePalantiri(0, count);
+                        if (inUse.addAndGet(count) > palantiri) {
+                            errors.incrementAndGet();
+                        }
+                        inUse.addAndGet(-count);
+                        mManager.releasePalantiri(batch);
+                    }
+                } catch (Exception e) {
+                    errors.incrementAndGet();
+                }
+            });
+            workers[t].start();
+        }
+
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertEquals(0, errors.get());
+        assertEquals(palantiri, mManager.availablePalantiri());
+    }
+
+    @Test
+    public void testTimedAcquire() throws Exception {
+        List<Palantir> held = mManager.acquirePalantiri(0, PALANTIRI_COUNT);
+
+        long start = System.nanoTime();
+        assertFalse(mManager.tryAcquirePalantir(0, 50, TimeUnit.MILLISECONDS).isPresent());
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+
+        AtomicReference<Optional<Palantir>> result = new AtomicReference<>();
+        Thread thread = new Thread(() ->
+                result.set(mManager.tryAcquirePalantir(1, 5, TimeUnit.SECONDS)));
+        thread.start();
+        Thread.sleep(50);
+
+        mManager.release(held.get(42));
+        thread.join();
+        assertSame(held.get(42), result.get().orElse(null));
+    }
+}
@@ -0,0 +1,175 @@
+package edu.vandy.simulator.managers.palantiri.concurrentMapFairSemaphore;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit test for the AqsSemaphore and the FairSemaphore.Factory.
+ */
+public class AqsSemaphoreTest {
+    /**
+     * Keep track of if a runtime exception occurs
+     */
+    private volatile boolean mFailed = false;
+
+    @After
+    public void after() {
+        FairSemaphore.Factory.setType(null);
+    }
+
+    @Test
+    public void testAcquireAndRelease() throws InterruptedException {
+        for (boolean fair : new boolean[]{true, false}) {
+            FairSemaphore fairSemaphore = new AqsSemaphore(2, fair);
+            fairSemaphore.acquire();
+            fairSemaphore.acquireUninterruptibly();
+            assertEquals(0, fairSemaphore.availablePermits());
+            fairSemaphore.release();
+            fairSemaphore.release();
+            assertEquals(2, fairSemaphore.availablePermits());
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testInterruptedAcquire() throws InterruptedException {
+        FairSemaphore fairSemaphore = new AqsSemaphore(0, true);
+
+        AtomicBoolean interrupted = new AtomicBoolean();
+        Thread t = new Thread(() -> {
+            try {
+                fairSemaphore.acquire();
+            } catch (InterruptedException e) {
+                interrupted.set(true);
+            }
+        });
+        t.start();
+        Thread.sleep(100);
+        t.interrupt();
+        t.join();
+
+        assertTrue(interrupted.get());
+        assertEquals(0, fairSemaphore.availablePermits());
+    }
+
+    @Test(timeout = 10000)
+    public void testTimedAcquire() throws InterruptedException {
+        FairSemaphore fairSemaphore = new AqsSemaphore(1, true);
+
+        assertTrue(fairSemaphore.tryAcquire(0, TimeUnit.MILLISECONDS));
+        assertFalse(fairSemaphore.tryAcquire(50, TimeUnit.MILLISECONDS));
+        fairSemaphore.release();
+        assertTrue(fairSemaphore.tryAcquire(50, TimeUnit.MILLISECONDS));
+    }
+
+    @Test(timeout = 30000)
+    public void testConcurrentAccess() throws InterruptedException {
+        final int threadCount = 8;
+        final int permitCount = 3;
+        final int accessCount = 20_000;
+
+        for (boolean fair : new boolean[]{true, false}) {
+            FairSemaphore semaphore = new AqsSemaphore(permitCount, fair);
+            AtomicInteger running = new AtomicInteger();
+
+            List<Thread> threads = new ArrayList<>();
+            for (int i = 0; i < threadCount; ++i) {
+                Thread t = new Thread(() -> {
+                    for (int j = 0; j < accessCount; ++j) {
+                        semaphore.acquireUninterruptibly();
+                        if (running.incrementAndGet() > permitCount) {
+                            mFailed = true;
+                        }
+                        running.decrementAndGet();
+                        semaphore.release();
+                    }
+                });
+                threads.add(t);
+                t.start();
+            }
+
+            for (Thread t : threads) {
+                t.join();
+            }
+
+            assertFalse(mFailed);
+            assertEquals(permitCount, semaphore.availablePermits());
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testFairness() throws InterruptedException {
+        FairSemaphore fairSemaphore = new AqsSemaphore(1, true);
+
+        int MAX_THREADS = 4;
+
+        FairnessChecker checker = new FairnessChecker(MAX_THREADS);
+
+        // Acquire the only permit so that the threads block when
+        // started.
+        fairSemaphore.acquire();
+
+        List<Thread> threads = new ArrayList<>(MAX_THREADS);
+
+        for (int i = 0; i < MAX_THREADS; ++i) {
+            Thread t = new Thread(() -> {
+                for (int j = 0; j < MAX_THREADS - 1; ++j) {
+                    fairSemaphore.acquireUninterruptibly();
+
+                    // Check that this thread was next in line.
+                    //noinspection NonAtomicOperationOnVolatileField
+                    mFailed = mFailed || !checker.isFifoOrder();
+                    checker.addCurrentThread();
+
+                    // Give the last thread time to re-acquire.
+                    try {
+                        Thread.sleep(100);
+                    } catch (InterruptedException e) {
+                        mFailed = true;
+                    }
+
+                    fairSemaphore.release();
+                }
+            });
+            t.setUncaughtExceptionHandler((thread, ex) -> mFailed = true);
+            checker.addNewThread(t.getId());
+            threads.add(t);
+            t.start();
+
+            // Wait to make sure the thread blocks before starting
+            // the next one.
+            Thread.sleep(100);
+        }
+
+        // Release the permit so the first Thread starts to run.
+        fairSemaphore.release();
+
+        for (Thread t : threads) {
+            t.join();
+        }
+
+        assertFalse(mFailed);
+    }
+
+    @Test
+    public void testFactory() {
+        FairSemaphore semaphore =
+                FairSemaphore.Factory.newSemaphore(1, FairSemaphoreLF::new);
+        assertTrue(semaphore instanceof FairSemaphoreLF);
+
+        FairSemaphore.Factory.setType(FairSemaphore.Factory.Type.AQS_BARGING);
+        semaphore = FairSemaphore.Factory.newSemaphore(1, FairSemaphoreLF::new);
+        assertTrue(semaphore instanceof AqsSemaphore);
+        assertFalse(((AqsSemaphore) semaphore).isFair());
+        assertEquals(1, semaphore.availablePermits());
+    }
+}
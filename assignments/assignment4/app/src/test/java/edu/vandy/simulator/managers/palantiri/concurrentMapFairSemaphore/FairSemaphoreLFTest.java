@@ -0,0 +1,201 @@
+package edu.vandy.simulator.managers.palantiri.concurrentMapFairSemaphore;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit test for the FairSemaphoreLF.
+ */
+public class FairSemaphoreLFTest {
+    /**
+     * Keep track of if a runtime exception occurs
+     */
+    private volatile boolean mFailed = false;
+
+    @Test
+    public void testAcquireAndRelease() throws InterruptedException {
+        FairSemaphore fairSemaphore = new FairSemaphoreLF(2);
+        assertEquals(2, fairSemaphore.availablePermits());
+        fairSemaphore.acquire();
+        assertEquals(1, fairSemaphore.availablePermits());
+        fairSemaphore.acquireUninterruptibly();
+        assertEquals(0, fairSemaphore.availablePermits());
+        fairSemaphore.release();
+        assertEquals(1, fairSemaphore.availablePermits());
+        fairSemaphore.release();
+        assertEquals(2, fairSemaphore.availablePermits());
+    }
+
+    @Test(timeout = 10000)
+    public void testNegativePermits() throws InterruptedException {
+        FairSemaphore fairSemaphore = new FairSemaphoreLF(-1);
+        fairSemaphore.release();
+        assertEquals(0, fairSemaphore.availablePermits());
+
+        // This thread should block until a second release.
+        AtomicBoolean acquired = new AtomicBoolean();
+        Thread t = new Thread(() -> {
+            fairSemaphore.acquireUninterruptibly();
+            acquired.set(true);
+        });
+        t.start();
+        t.join(500);
+        assertFalse(acquired.get());
+
+        fairSemaphore.release();
+        t.join();
+        assertTrue(acquired.get());
+        assertEquals(0, fairSemaphore.availablePermits());
+    }
+
+    @Test(timeout = 10000)
+    public void testInterruptedWaiterIsSkipped() throws InterruptedException {
+        FairSemaphore fairSemaphore = new FairSemaphoreLF(0);
+
+        AtomicBoolean interrupted = new AtomicBoolean();
+        Thread first = new Thread(() -> {
+            try {
+                fairSemaphore.acquire();
+            } catch (InterruptedException e) {
+                interrupted.set(true);
+            }
+        });
+        first.start();
+        Thread.sleep(100);
+
+        Thread second = new Thread(fairSemaphore::acquireUninterruptibly);
+        second.start();
+        Thread.sleep(100);
+
+        first.interrupt();
+        first.join();
+        assertTrue(interrupted.get());
+
+        // The permit must go to the second waiter.
+        fairSemaphore.release();
+        second.join();
+        assertEquals(0, fairSemaphore.availablePermits());
+    }
+
+    @Test(timeout = 10000)
+    public void testTimedAcquire() throws InterruptedException {
+        FairSemaphore fairSemaphore = new FairSemaphoreLF(0);
+
+        assertFalse(fairSemaphore.tryAcquire(0, TimeUnit.MILLISECONDS));
+        assertFalse(fairSemaphore.tryAcquire(50, TimeUnit.MILLISECONDS));
+
+        // The timed out waiter must not absorb a later permit.
+        AtomicBoolean acquired = new AtomicBoolean();
+        Thread t = new Thread(() -> {
+            try {
+                acquired.set(fairSemaphore.tryAcquire(5, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                mFailed = true;
+            }
+        });
+        t.start();
+        Thread.sleep(50);
+
+        fairSemaphore.release();
+        t.join();
+        assertTrue(acquired.get());
+        assertEquals(0, fairSemaphore.availablePermits());
+        assertFalse(mFailed);
+    }
+
+    @Test(timeout = 30000)
+    public void testConcurrentAccess() throws InterruptedException {
+        final int threadCount = 8;
+        final int permitCount = 3;
+        final int accessCount = 20_000;
+
+        FairSemaphore semaphore = new FairSemaphoreLF(permitCount);
+        AtomicInteger running = new AtomicInteger();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < threadCount; ++i) {
+            Thread t = new Thread(() -> {
+                for (int j = 0; j < accessCount; ++j) {
+                    semaphore.acquireUninterruptibly();
+                    if (running.incrementAndGet() > permitCount) {
+                        mFailed = true;
+                    }
+                    running.decrementAndGet();
+                    semaphore.release();
+                }
+            });
+            threads.add(t);
+            t.start();
+        }
+
+        for (Thread t : threads) {
+            t.join();
+        }
+
+        assertFalse(mFailed);
+        assertEquals(permitCount, semaphore.availablePermits());
+    }
+
+    @Test(timeout = 10000)
+    public void testFairness() throws InterruptedException {
+        FairSemaphore fairSemaphore = new FairSemaphoreLF(1);
+
+        int MAX_THREADS = 4;
+
+        FairnessChecker checker = new FairnessChecker(MAX_THREADS);
+
+        // Acquire the only permit so that the threads block when
+        // started.
+        fairSemaphore.acquire();
+
+        List<Thread> threads = new ArrayList<>(MAX_THREADS);
+
+        for (int i = 0; i < MAX_THREADS; ++i) {
+            Thread t = new Thread(() -> {
+                for (int j = 0; j < MAX_THREADS - 1; ++j) {
+                    fairSemaphore.acquireUninterruptibly();
+
+                    // Check that this thread was next in line.
+                    //noinspection NonAtomicOperationOnVolatileField
+                    mFailed = mFailed || !checker.isFifoOrder();
+                    checker.addCurrentThread();
+
+                    // Give the last thread time to re-acquire.
+                    try {
+                        Thread.sleep(100);
+                    } catch (InterruptedException e) {
+                        mFailed = true;
+                    }
+
+                    fairSemaphore.release();
+                }
+            });
+            t.setUncaughtExceptionHandler((thread, ex) -> mFailed = true);
+            checker.addNewThread(t.getId());
+            threads.add(t);
+            t.start();
+
+            // Wait to make sure the thread blocks before starting
+            // the next one.
+            Thread.sleep(100);
+        }
+
+        // Release the permit so the first Thread starts to run.
+        fairSemaphore.release();
+
+        for (Thread t : threads) {
+            t.join();
+        }
+
+        assertFalse(mFailed);
+    }
+}
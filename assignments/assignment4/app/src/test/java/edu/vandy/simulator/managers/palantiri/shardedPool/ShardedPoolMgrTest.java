@@ -0,0 +1,145 @@
+package edu.vandy.simulator.managers.palantiri.shardedPool;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import edu.vandy.simulator.managers.palantiri.AsyncPalantiriManagerContractTest;
+import edu.vandy.simulator.managers.palantiri.Palantir;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ShardedPoolMgrTest
+        extends AsyncPalantiriManagerContractTest<ShardedPoolMgr> {
+    private final static int PALANTIRI_COUNT = 64;
+
+    @Override
+    protected ShardedPoolMgr newManager() {
+        return new ShardedPoolMgr();
+    }
+
+    @Override
+    protected int getPalantiriCount() {
+        return PALANTIRI_COUNT;
+    }
+
+    @Override
+    protected int availablePalantiri() {
+        return mManager.availablePalantiri();
+    }
+
+    @Test
+    public void testShardCount() {
+        // A power of two that is never larger than the pool.
+        int shards = mManager.getShardCount();
+        assertEquals(1, Integer.bitCount(shards));
+        assertTrue(shards <= PALANTIRI_COUNT);
+
+        mManager.buildModel(null, 3);
+        assertTrue(mManager.getShardCount() <= 2);
+    }
+
+    @Test
+    public void testBatchedAcquire() throws Exception {
+        List<Palantir> palantiri = mManager.acquire(PALANTIRI_COUNT - 1);
+        assertEquals(PALANTIRI_COUNT - 1, new HashSet<>(palantiri).size());
+
+        assertTrue(mManager.tryAcquire(2).isEmpty());
+        assertEquals(1, mManager.availablePalantiri());
+
+        for (Palantir palantir : palantiri) {
+            mManager.release(palantir);
+        }
+
+        assertEquals(PALANTIRI_COUNT, mManager.availablePalantiri());
+    }
+
+    @Test
+    public void testBatchedRelease() throws Exception {
+        List<Palantir> palantiri = mManager.acquire(PALANTIRI_COUNT);
+
+        mManager.release(palantiri);
+        assertEquals(PALANTIRI_COUNT, mManager.availablePalantiri());
+        assertEquals(PALANTIRI_COUNT, mManager.acquire(PALANTIRI_COUNT).size());
+    }
+
+    @Test
+    public void testBatchedReleaseOfUnacquiredPalantirReleasesNone() throws Exception {
+        List<Palantir> palantiri = mManager.acquire(2);
+        mManager.release(palantiri.get(1));
+
+        try {
+            mManager.release(palantiri);
+            fail("Releasing a palantir that isn't acquired should throw");
+        } catch (IllegalStateException e) {
+            // Expected.
+        }
+
+        // The first palantir is still acquired and can be released.
+        assertEquals(PALANTIRI_COUNT - 1, mManager.availablePalantiri());
+        mManager.release(palantiri.get(0));
+        assertEquals(PALANTIRI_COUNT, mManager.availablePalantiri());
+    }
+
+    @Test
+    public void testReset() throws Exception {
+        for (int i = 0; i < PALANTIRI_COUNT / 2; i++) {
+            mManager.acquire();
+        }
+
+        mManager.reset();
+
+        assertEquals(PALANTIRI_COUNT, mManager.availablePalantiri());
+        assertEquals(PALANTIRI_COUNT, mManager.acquire(PALANTIRI_COUNT).size());
+    }
+
+    @Test(timeout = 30000)
+    public void testConcurrentBatchedAccess() throws InterruptedException {
+        final int threadCount = 16;
+        final int accessCount = 10_000;
+
+        Set<Palantir> inUse = ConcurrentHashMap.newKeySet();
+        AtomicBoolean failed = new AtomicBoolean();
+        List<Thread> threads = new ArrayList<>();
+
+        for (int i = 0; i < threadCount; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    for (int j = 0; j < accessCount; j++) {
+                        // Hold several palantiri at once so that the
+                        // home shards run dry and threads steal.
+                        List<Palantir> palantiri = mManager.acquire(3);
+                        for (Palantir palantir : palantiri) {
+                            if (!inUse.add(palantir)) {
+                                failed.set(true);
+                            }
+                        }
+                        for (Palantir palantir : palantiri) {
+                            inUse.remove(palantir);
+                        }
+                        mManager.release(palantiri);
+                    }
+                } catch (Exception e) {
+                    failed.set(true);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertFalse(failed.get());
+        assertEquals(PALANTIRI_COUNT, mManager.availablePalantiri());
+    }
+}
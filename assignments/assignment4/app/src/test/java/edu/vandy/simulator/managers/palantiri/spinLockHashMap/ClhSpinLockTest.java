@@ -0,0 +1,162 @@
+package edu.vandy.simulator.managers.palantiri.spinLockHashMap;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ClhSpinLockTest {
+    @Test
+    public void testTryLock() {
+        ClhSpinLock lock = new ClhSpinLock();
+
+        assertTrue(lock.tryLock());
+        assertFalse(lock.tryLock());
+        lock.unlock();
+        assertTrue(lock.tryLock());
+        lock.unlock();
+    }
+
+    @Test(expected = IllegalMonitorStateException.class)
+    public void testUnlockWithoutLockThrows() {
+        new ClhSpinLock().unlock();
+    }
+
+    @Test
+    public void testMutualExclusion() throws Exception {
+        final int threads = 8;
+        final int iterations = 20_000;
+        ClhSpinLock lock = new ClhSpinLock();
+        AtomicInteger inside = new AtomicInteger();
+        AtomicBoolean overlap = new AtomicBoolean();
+        int[] counter = new int[1];
+
+        List<Thread> list = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            final boolean timed = i % 2 == 0;
+            list.add(new Thread(() -> {
+                for (int j = 0; j < iterations; j++) {
+                    if (timed) {
+                        while (!lock.tryLock(1, TimeUnit.MILLISECONDS)) {
+                            // Retry after timing out.
+                        }
+                    } else {
+                        lock.lock(() -> false);
+                    }
+                    try {
+                        if (inside.incrementAndGet() != 1) {
+                            overlap.set(true);
+                        }
+                        counter[0]++;
+                        inside.decrementAndGet();
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+            }));
+        }
+
+        list.forEach(Thread::start);
+        for (Thread thread : list) {
+            thread.join();
+        }
+
+        assertFalse("Two threads held the lock at once", overlap.get());
+        assertEquals(threads * iterations, counter[0]);
+    }
+
+    @Test
+    public void testTimeout() throws Exception {
+        ClhSpinLock lock = new ClhSpinLock();
+        lock.lock(() -> false);
+
+        AtomicBoolean acquired = new AtomicBoolean(true);
+        Thread thread = new Thread(() ->
+                acquired.set(lock.tryLock(20, TimeUnit.MILLISECONDS)));
+        long start = System.nanoTime();
+        thread.start();
+        thread.join();
+
+        assertFalse(acquired.get());
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(20));
+
+        // The timed out node at the tail must not block tryLock().
+        lock.unlock();
+        assertTrue(lock.tryLock());
+        lock.unlock();
+    }
+
+    @Test
+    public void testCancelledWaiterIsSpliced() throws Exception {
+        ClhSpinLock lock = new ClhSpinLock();
+        lock.lock(() -> false);
+
+        // The first waiter is cancelled while queued.
+        AtomicBoolean cancel = new AtomicBoolean();
+        CountDownLatch cancelled = new CountDownLatch(1);
+        Thread first = new Thread(() -> {
+            try {
+                lock.lock(cancel::get);
+                fail("Lock should have been cancelled");
+            } catch (CancellationException e) {
+                cancelled.countDown();
+            }
+        });
+        first.start();
+
+        // The second waiter queues behind the first.
+        CountDownLatch acquired = new CountDownLatch(1);
+        Thread second = new Thread(() -> {
+            lock.lock(() -> false);
+            acquired.countDown();
+            lock.unlock();
+        });
+        Thread.sleep(50);
+        second.start();
+        Thread.sleep(50);
+
+        cancel.set(true);
+        assertTrue(cancelled.await(1, TimeUnit.SECONDS));
+
+        // The second waiter must skip past the cancelled node.
+        lock.unlock();
+        assertTrue(acquired.await(1, TimeUnit.SECONDS));
+
+        // The lock must be free again.
+        second.join();
+        assertTrue(lock.tryLock());
+        lock.unlock();
+    }
+
+    @Test
+    public void testLockTimeoutSheds() throws Exception {
+        ClhSpinLock lock = new ClhSpinLock();
+        lock.lock(() -> false);
+
+        QueueLockHashMapMgr manager = new QueueLockHashMapMgr();
+        manager.setLockTimeout(10);
+        try {
+            AtomicBoolean shed = new AtomicBoolean();
+            Thread thread = new Thread(() ->
+                    shed.set(!manager.lock(lock, () -> false)));
+            thread.start();
+            thread.join();
+            assertTrue(shed.get());
+        } finally {
+            lock.unlock();
+        }
+
+        // The timeout belongs to the manager, not to the process.
+        assertEquals(0, new QueueLockHashMapMgr().getLockTimeout());
+    }
+}
@@ -0,0 +1,132 @@
+package edu.vandy.simulator.managers.palantiri.spinLockHashMap;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class McsSpinLockTest {
+    @Test
+    public void testTryLock() {
+        McsSpinLock lock = new McsSpinLock();
+
+        assertTrue(lock.tryLock());
+        assertFalse(lock.tryLock());
+        lock.unlock();
+        assertTrue(lock.tryLock());
+        lock.unlock();
+    }
+
+    @Test(expected = IllegalMonitorStateException.class)
+    public void testUnlockWithoutLockThrows() {
+        new McsSpinLock().unlock();
+    }
+
+    @Test
+    public void testUnlockByNonOwnerThrows() throws Exception {
+        McsSpinLock lock = new McsSpinLock();
+        lock.lock(() -> false);
+
+        AtomicBoolean threw = new AtomicBoolean();
+        Thread thread = new Thread(() -> {
+            try {
+                lock.unlock();
+            } catch (IllegalMonitorStateException e) {
+                threw.set(true);
+            }
+        });
+        thread.start();
+        thread.join();
+
+        assertTrue(threw.get());
+        lock.unlock();
+    }
+
+    @Test
+    public void testMutualExclusion() throws Exception {
+        final int threads = 8;
+        final int iterations = 20_000;
+        McsSpinLock lock = new McsSpinLock();
+        AtomicInteger inside = new AtomicInteger();
+        AtomicBoolean overlap = new AtomicBoolean();
+        int[] counter = new int[1];
+
+        List<Thread> list = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            list.add(new Thread(() -> {
+                for (int j = 0; j < iterations; j++) {
+                    lock.lock(() -> false);
+                    try {
+                        if (inside.incrementAndGet() != 1) {
+                            overlap.set(true);
+                        }
+                        counter[0]++;
+                        inside.decrementAndGet();
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+            }));
+        }
+
+        list.forEach(Thread::start);
+        for (Thread thread : list) {
+            thread.join();
+        }
+
+        assertFalse("Two threads held the lock at once", overlap.get());
+        assertEquals(threads * iterations, counter[0]);
+    }
+
+    @Test
+    public void testCancelledWaiterIsSkipped() throws Exception {
+        McsSpinLock lock = new McsSpinLock();
+        lock.lock(() -> false);
+
+        // The first waiter is cancelled while queued.
+        AtomicBoolean cancel = new AtomicBoolean();
+        CountDownLatch cancelled = new CountDownLatch(1);
+        Thread first = new Thread(() -> {
+            try {
+                lock.lock(cancel::get);
+                fail("Lock should have been cancelled");
+            } catch (CancellationException e) {
+                cancelled.countDown();
+            }
+        });
+        first.start();
+
+        // The second waiter queues behind the first.
+        CountDownLatch acquired = new CountDownLatch(1);
+        Thread second = new Thread(() -> {
+            lock.lock(() -> false);
+            acquired.countDown();
+            lock.unlock();
+        });
+        Thread.sleep(50);
+        second.start();
+        Thread.sleep(50);
+
+        cancel.set(true);
+        assertTrue(cancelled.await(1, TimeUnit.SECONDS));
+
+        // Releasing must skip the abandoned node.
+        lock.unlock();
+        assertTrue(acquired.await(1, TimeUnit.SECONDS));
+
+        // The lock must be free again.
+        second.join();
+        assertTrue(lock.tryLock());
+        lock.unlock();
+    }
+}
@@ -0,0 +1,149 @@
+package edu.vandy.simulator.managers.palantiri.spinLockHashMap;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import edu.vandy.simulator.managers.palantiri.Palantir;
+import edu.vandy.simulator.managers.palantiri.PalantiriManagerContractTest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class QueueLockHashMapMgrTest
+        extends PalantiriManagerContractTest<QueueLockHashMapMgr> {
+    private final static int PALANTIRI_COUNT = 4;
+
+    @Override
+    protected QueueLockHashMapMgr newManager() {
+        return new QueueLockHashMapMgr();
+    }
+
+    @Override
+    protected int getPalantiriCount() {
+        return PALANTIRI_COUNT;
+    }
+
+    @Override
+    protected int availablePalantiri() {
+        return mManager.availablePalantiri();
+    }
+
+    @After
+    public void tearDown() {
+        QueueLockHashMapMgr.setLockType(null);
+    }
+
+    @Test
+    public void testDefaultLockIsMcs() {
+        QueueLockHashMapMgr manager = buildManager();
+        assertTrue(manager.getSpinLock() instanceof McsSpinLock);
+    }
+
+    @Test
+    public void testSelectedLockType() {
+        QueueLockHashMapMgr.setLockType(QueueLockHashMapMgr.LockType.CLH_SPIN_LOCK);
+        assertTrue(buildManager().getSpinLock() instanceof ClhSpinLock);
+
+        QueueLockHashMapMgr.setLockType(QueueLockHashMapMgr.LockType.TTAS_SPIN_LOCK);
+        assertTrue(buildManager().getSpinLock() instanceof TtasSpinLock);
+    }
+
+    @Test(timeout = 10000)
+    public void testLockTimeoutShedsRequest() throws Exception {
+        QueueLockHashMapMgr.setLockType(QueueLockHashMapMgr.LockType.CLH_SPIN_LOCK);
+        QueueLockHashMapMgr manager = buildManager();
+        manager.setLockTimeout(10);
+
+        // Hold the lock so that every request times out.
+        manager.getSpinLock().lock(() -> false);
+        try {
+            AtomicReference<Throwable> thrown = new AtomicReference<>();
+            AtomicBoolean shed = new AtomicBoolean();
+            Thread thread = new Thread(() -> {
+                try {
+                    manager.acquire();
+                } catch (Throwable t) {
+                    thrown.set(t);
+                }
+                try {
+                    shed.set(!manager.tryAcquirePalantir(0, 1, TimeUnit.SECONDS)
+                            .isPresent());
+                } catch (Throwable t) {
+                    thrown.set(t);
+                }
+            });
+            thread.start();
+            thread.join();
+
+            assertTrue(thrown.get() instanceof LockTimeoutException);
+            assertTrue(shed.get());
+        } finally {
+            manager.getSpinLock().unlock();
+        }
+
+        // Both permits were returned.
+        assertEquals(PALANTIRI_COUNT,
+                manager.getAvailablePalantiri().availablePermits());
+    }
+
+    @Test(timeout = 30000)
+    public void testConcurrentAccessWithEachLockType() throws InterruptedException {
+        for (QueueLockHashMapMgr.LockType lockType : new QueueLockHashMapMgr.LockType[]{
+                QueueLockHashMapMgr.LockType.MCS_SPIN_LOCK,
+                QueueLockHashMapMgr.LockType.CLH_SPIN_LOCK,
+                QueueLockHashMapMgr.LockType.TTAS_SPIN_LOCK}) {
+            QueueLockHashMapMgr.setLockType(lockType);
+            QueueLockHashMapMgr manager = buildManager();
+
+            Set<Palantir> inUse = ConcurrentHashMap.newKeySet();
+            AtomicBoolean failed = new AtomicBoolean();
+            List<Thread> threads = new ArrayList<>();
+
+            for (int i = 0; i < 8; i++) {
+                Thread thread = new Thread(() -> {
+                    try {
+                        for (int j = 0; j < 5_000; j++) {
+                            Palantir palantir = manager.acquire();
+                            if (!inUse.add(palantir)) {
+                                failed.set(true);
+                            }
+                            inUse.remove(palantir);
+                            manager.releasePalantir(palantir);
+                        }
+                    } catch (Exception e) {
+                        failed.set(true);
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+            }
+
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            assertFalse(lockType.name(), failed.get());
+            assertEquals(PALANTIRI_COUNT,
+                    manager.getAvailablePalantiri().availablePermits());
+        }
+    }
+
+    /**
+     * @return A new manager built with the currently selected lock
+     * type.
+     */
+    private QueueLockHashMapMgr buildManager() {
+        QueueLockHashMapMgr manager = newManager();
+        manager.buildModel(null, PALANTIRI_COUNT);
+        return manager;
+    }
+}
@@ -0,0 +1,124 @@
+package edu.vandy.simulator.managers.palantiri.spinLockHashMap;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SpinPolicyTest {
+    @Test
+    public void testUniprocessorNeverSpins() {
+        SpinPolicy policy = new SpinPolicy(1);
+        assertEquals(0, policy.getSpinLimit());
+
+        hold(policy, 32, 0);
+        assertEquals(0, policy.getSpinLimit());
+    }
+
+    @Test
+    public void testShortHoldSpinsLonger() {
+        SpinPolicy policy = new SpinPolicy(4);
+
+        // Well under the cost of parking, but long enough to be
+        // measured reliably.
+        hold(policy, 256, 2_000L);
+        assertTrue(policy.getSpinLimit() > SpinPolicy.MIN_SPINS);
+    }
+
+    @Test
+    public void testLongHoldSpinsLess() {
+        SpinPolicy policy = new SpinPolicy(4);
+
+        hold(policy, 64, 1_000_000L);
+        assertEquals(SpinPolicy.MIN_SPINS, policy.getSpinLimit());
+    }
+
+    @Test
+    public void testPauseStepsAdvanceThenSaturate() {
+        SpinPolicy policy = new SpinPolicy(1);
+
+        int step = 0;
+        for (int i = 0; i < 100; i++) {
+            int next = policy.pause(step);
+            assertTrue(next >= step);
+            step = next;
+        }
+        assertEquals(step, policy.pause(step));
+    }
+
+    @Test
+    public void testParksOnlyAfterSpinningAndBackingOff() {
+        SpinPolicy policy = new SpinPolicy(4);
+        int spinLimit = policy.getSpinLimit();
+
+        assertFalse(policy.parks(0));
+        assertFalse(policy.parks(spinLimit));
+        assertTrue(policy.parks(spinLimit + 10));
+    }
+
+    @Test
+    public void testPauseHonorsMaxPark() {
+        SpinPolicy policy = new SpinPolicy(1);
+
+        // Far past the backoff phase, so every pause parks.
+        int step = 1_000;
+        long start = System.nanoTime();
+        for (int i = 0; i < 10; i++) {
+            policy.pause(step, 1_000L);
+        }
+        assertTrue(System.nanoTime() - start < 5_000_000L);
+    }
+
+    @Test
+    public void testOversubscribedLockMakesProgress() throws Exception {
+        final int threads = 4 * Runtime.getRuntime().availableProcessors();
+        final int iterations = 2_000;
+        SpinPolicy policy = new SpinPolicy();
+        AtomicBoolean owner = new AtomicBoolean();
+        int[] counter = new int[1];
+
+        List<Thread> list = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            list.add(new Thread(() -> {
+                for (int j = 0; j < iterations; j++) {
+                    for (int step = 0; !owner.compareAndSet(false, true);
+                         step = policy.pause(step)) {
+                    }
+                    policy.acquired();
+                    counter[0]++;
+                    policy.released();
+                    owner.set(false);
+                }
+            }));
+        }
+
+        long start = System.nanoTime();
+        list.forEach(Thread::start);
+        for (Thread thread : list) {
+            thread.join();
+        }
+
+        assertEquals(threads * iterations, counter[0]);
+        assertTrue(System.nanoTime() - start < 10_000_000_000L);
+    }
+
+    /**
+     * Simulates the given number of acquisitions that each hold
+     * the lock for the given time.
+     */
+    private static void hold(SpinPolicy policy, int count, long nanos) {
+        for (int i = 0; i < count; i++) {
+            policy.acquired();
+            // Busy wait since parking overshoots short holds.
+            long end = System.nanoTime() + nanos;
+            while (System.nanoTime() < end) {
+            }
+            policy.released();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package edu.vandy.simulator.managers.palantiri.spinLockHashMap;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TtasSpinLockTest {
+    @Test
+    public void testTryLock() {
+        TtasSpinLock lock = new TtasSpinLock();
+
+        assertTrue(lock.tryLock());
+        assertFalse(lock.tryLock());
+        lock.unlock();
+        assertTrue(lock.tryLock());
+        lock.unlock();
+    }
+
+    @Test(expected = IllegalMonitorStateException.class)
+    public void testUnlockWithoutLockThrows() {
+        new TtasSpinLock().unlock();
+    }
+
+    @Test
+    public void testUnlockByNonOwnerThrows() throws Exception {
+        TtasSpinLock lock = new TtasSpinLock();
+        lock.lock(() -> false);
+
+        AtomicBoolean threw = new AtomicBoolean();
+        Thread thread = new Thread(() -> {
+            try {
+                lock.unlock();
+            } catch (IllegalMonitorStateException e) {
+                threw.set(true);
+            }
+        });
+        thread.start();
+        thread.join();
+
+        assertTrue(threw.get());
+        lock.unlock();
+    }
+
+    @Test(expected = CancellationException.class)
+    public void testLockCancelled() {
+        TtasSpinLock lock = new TtasSpinLock();
+        lock.lock(() -> false);
+        lock.lock(() -> true);
+    }
+
+    @Test
+    public void testMutualExclusion() throws Exception {
+        final int threads = 8;
+        final int iterations = 20_000;
+        TtasSpinLock lock = new TtasSpinLock();
+        AtomicInteger inside = new AtomicInteger();
+        AtomicBoolean overlap = new AtomicBoolean();
+        int[] counter = new int[1];
+
+        List<Thread> list = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            list.add(new Thread(() -> {
+                for (int j = 0; j < iterations; j++) {
+                    lock.lock(() -> false);
+                    try {
+                        if (inside.incrementAndGet() != 1) {
+                            overlap.set(true);
+                        }
+                        counter[0]++;
+                        inside.decrementAndGet();
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+            }));
+        }
+
+        list.forEach(Thread::start);
+        for (Thread thread : list) {
+            thread.join();
+        }
+
+        assertFalse("Two threads held the lock at once", overlap.get());
+        assertEquals(threads * iterations, counter[0]);
+    }
+}
@@ -0,0 +1,55 @@
+package edu.vandy.simulator.managers.palantiri.structuredConcurrency;
+
+import org.junit.Test;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import edu.vandy.simulator.managers.palantiri.PalantiriManagerContractTest;
+
+import static org.junit.Assert.assertTrue;
+
+public class SpinLockHashMapMgrTest
+        extends PalantiriManagerContractTest<SpinLockHashMapMgr> {
+    private final static int PALANTIRI_COUNT = 4;
+
+    @Override
+    protected SpinLockHashMapMgr newManager() {
+        return new SpinLockHashMapMgr();
+    }
+
+    @Override
+    protected int getPalantiriCount() {
+        return PALANTIRI_COUNT;
+    }
+
+    @Override
+    protected int availablePalantiri() {
+        return mManager.availablePalantiri();
+    }
+
+    @Test(timeout = 10000)
+    public void testInterruptThrowsCancellationAndKeepsStatus() throws Exception {
+        for (int i = 0; i < PALANTIRI_COUNT; i++) {
+            mManager.acquire();
+        }
+
+        AtomicBoolean cancelled = new AtomicBoolean();
+        AtomicBoolean interrupted = new AtomicBoolean();
+        Thread thread = new Thread(() -> {
+            try {
+                mManager.acquire();
+            } catch (CancellationException e) {
+                cancelled.set(true);
+                interrupted.set(Thread.currentThread().isInterrupted());
+            }
+        });
+        thread.start();
+        Thread.sleep(100);
+        thread.interrupt();
+        thread.join();
+
+        assertTrue(cancelled.get());
+        assertTrue(interrupted.get());
+    }
+}
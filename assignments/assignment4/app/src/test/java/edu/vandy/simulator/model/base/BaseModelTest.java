@@ -0,0 +1,142 @@
+package edu.vandy.simulator.model.base;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import edu.vandy.simulator.Controller;
+import edu.vandy.simulator.model.implementation.snapshots.ModelDelta;
+import edu.vandy.simulator.model.implementation.snapshots.ModelSnapshot;
+import edu.vandy.simulator.model.interfaces.ComponentSnapshot;
+import edu.vandy.simulator.model.interfaces.ModelComponent;
+import edu.vandy.simulator.model.interfaces.ModelObserver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class BaseModelTest {
+    private TestModel mModel;
+
+    @Before
+    public void setup() {
+        Controller.setLogging(false);
+        Controller.setFullSnapshotInterval(0);
+        Controller.setSnapshotRate(0);
+        mModel = new TestModel();
+    }
+
+    @Test
+    public void testAddObserverNotifiesObserver() {
+        CountingObserver observer = new CountingObserver();
+
+        mModel.addObserver(observer, true);
+        assertEquals(1, observer.mSnapshots.get());
+
+        mModel.triggerSnapshot(mModel);
+        assertEquals(2, observer.mSnapshots.get());
+    }
+
+    @Test
+    public void testAddObserverTwiceRegistersItOnce() {
+        CountingObserver observer = new CountingObserver();
+
+        mModel.addObserver(observer, false);
+        mModel.addObserver(observer, false);
+        assertEquals(1, mModel.getObserverCount());
+
+        mModel.triggerSnapshot(mModel);
+        assertEquals(1, observer.mSnapshots.get());
+    }
+
+    @Test
+    public void testRemoveObserver() {
+        CountingObserver removed = new CountingObserver();
+        CountingObserver kept = new CountingObserver();
+
+        mModel.addObserver(removed, false);
+        mModel.addObserver(kept, false);
+        mModel.removeObserver(removed);
+        assertEquals(1, mModel.getObserverCount());
+
+        mModel.triggerSnapshot(mModel);
+        assertEquals(0, removed.mSnapshots.get());
+        assertEquals(1, kept.mSnapshots.get());
+
+        // Removing an unregistered observer has no effect.
+        mModel.removeObserver(removed);
+        assertEquals(1, mModel.getObserverCount());
+    }
+
+    @Test(timeout = 10000)
+    public void testClearedObserversAreExpunged() throws InterruptedException {
+        CountingObserver kept = new CountingObserver();
+        mModel.addObserver(kept, false);
+
+        // Register an observer that is only weakly reachable.
+        CountingObserver collected = new CountingObserver();
+        WeakReference<CountingObserver> ref = new WeakReference<>(collected);
+        mModel.addObserver(collected, false);
+        collected = null;
+        assertEquals(2, mModel.getObserverCount());
+
+        while (ref.get() != null) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(ref.get());
+
+        // The next broadcast expunges the cleared entry.
+        mModel.triggerSnapshot(mModel);
+        assertEquals(1, mModel.getObserverCount());
+        assertEquals(1, kept.mSnapshots.get());
+    }
+
+    /**
+     * Counts the snapshots it receives.
+     */
+    private static class CountingObserver implements ModelObserver {
+        final AtomicInteger mSnapshots = new AtomicInteger();
+
+        @Override
+        public void onModelChanged(ModelSnapshot snapshot) {
+            mSnapshots.incrementAndGet();
+        }
+    }
+
+    /**
+     * A model with no components whose snapshots are all null.
+     */
+    private static class TestModel extends BaseModel<String, String> {
+        TestModel() {
+            super("MODEL", "IDLE", null);
+        }
+
+        @Override
+        public ComponentSnapshot<String, String> buildSnapshot() {
+            return null;
+        }
+
+        @Override
+        public ModelSnapshot buildModelSnapshot(ModelComponent component) {
+            return null;
+        }
+
+        @Override
+        public ModelDelta buildModelDelta(ModelComponent component) {
+            return null;
+        }
+
+        @Override
+        public ModelDelta buildModelDelta(Collection<ModelComponent> components) {
+            return null;
+        }
+
+        @Override
+        public ModelSnapshot updateModelSnapshot(ModelComponent component) {
+            return null;
+        }
+    }
+}
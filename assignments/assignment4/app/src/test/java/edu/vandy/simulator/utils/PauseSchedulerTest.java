@@ -0,0 +1,111 @@
+package edu.vandy.simulator.utils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PauseSchedulerTest {
+    @Test
+    public void testPauseWaitsForDuration() {
+        long start = System.nanoTime();
+        assertTrue(PauseScheduler.pause(100, () -> false));
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue("Paused for only " + elapsed + " ms", elapsed >= 100);
+    }
+
+    @Test
+    public void testZeroDurationDoesNotPause() {
+        assertTrue(PauseScheduler.pause(0, () -> false));
+        assertFalse(PauseScheduler.pause(0, () -> true));
+    }
+
+    @Test
+    public void testWakeCancelsPauseImmediately() throws Exception {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        AtomicBoolean result = new AtomicBoolean(true);
+        CountDownLatch done = new CountDownLatch(1);
+
+        Thread thread = new Thread(() -> {
+            result.set(PauseScheduler.pause(60_000, cancelled::get));
+            done.countDown();
+        });
+        thread.start();
+
+        // Give the thread time to park.
+        Thread.sleep(100);
+        cancelled.set(true);
+        PauseScheduler.wake(thread);
+
+        assertTrue("Pause was not cancelled", done.await(1, TimeUnit.SECONDS));
+        assertFalse(result.get());
+    }
+
+    @Test
+    public void testInterruptEndsPause() throws Exception {
+        AtomicBoolean result = new AtomicBoolean(true);
+        CountDownLatch done = new CountDownLatch(1);
+
+        Thread thread = new Thread(() -> {
+            result.set(PauseScheduler.pause(60_000, () -> false));
+            done.countDown();
+        });
+        thread.start();
+        thread.interrupt();
+
+        assertTrue("Pause was not interrupted", done.await(1, TimeUnit.SECONDS));
+        assertFalse(result.get());
+    }
+
+    @Test
+    public void testManyConcurrentPauses() throws Exception {
+        final int threads = 1000;
+        AtomicInteger completed = new AtomicInteger();
+        List<Thread> list = new ArrayList<>();
+
+        for (int i = 0; i < threads; i++) {
+            final long duration = 50 + (i % 50);
+            Thread thread = new Thread(() -> {
+                if (PauseScheduler.pause(duration, () -> false)) {
+                    completed.incrementAndGet();
+                }
+            });
+            list.add(thread);
+            thread.start();
+        }
+
+        for (Thread thread : list) {
+            thread.join(5_000);
+        }
+
+        assertEquals(threads, completed.get());
+    }
+
+    @Test
+    public void testDelayCompletesWithoutBlocking() throws Exception {
+        long start = System.nanoTime();
+        CompletableFuture<Void> delay = PauseScheduler.delay(100);
+        assertFalse(delay.isDone());
+
+        delay.get(1, TimeUnit.SECONDS);
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue("Delayed for only " + elapsed + " ms", elapsed >= 100);
+    }
+
+    @Test
+    public void testDelayCanEndEarly() {
+        CompletableFuture<Void> delay = PauseScheduler.delay(60_000);
+        assertTrue(delay.complete(null));
+        assertTrue(PauseScheduler.delay(0).isDone());
+    }
+}
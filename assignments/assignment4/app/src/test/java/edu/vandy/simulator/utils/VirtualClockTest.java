@@ -0,0 +1,157 @@
+package edu.vandy.simulator.utils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class VirtualClockTest {
+    @Test
+    public void testClockAdvancesWithoutSleeping() throws Exception {
+        final int beings = 10;
+        List<Thread> threads = new ArrayList<>();
+        VirtualClock.reset(beings, beings);
+
+        for (int i = 1; i <= beings; i++) {
+            final long duration = i * 60_000;
+            threads.add(new Thread(() -> {
+                VirtualClock.beingStarted();
+                try {
+                    assertTrue(VirtualClock.pause(duration, () -> false));
+                } finally {
+                    VirtualClock.beingFinished();
+                }
+            }));
+        }
+
+        long start = System.nanoTime();
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join(5_000);
+        }
+
+        assertEquals(beings * 60_000, VirtualClock.now());
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5_000);
+    }
+
+    @Test
+    public void testPooledBeingsRunBackToBack() throws Exception {
+        // One pool thread runs 3 beings one after another.
+        VirtualClock.reset(1, 3);
+
+        Thread thread = new Thread(() -> {
+            for (int i = 0; i < 3; i++) {
+                VirtualClock.beingStarted();
+                VirtualClock.pause(1_000, () -> false);
+                VirtualClock.beingFinished();
+            }
+        });
+        thread.start();
+        thread.join(5_000);
+
+        assertEquals(3_000, VirtualClock.now());
+    }
+
+    @Test
+    public void testClockWaitsForRunningBeings() throws Exception {
+        CountDownLatch paused = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+
+        // Register two beings but only pause one of them.
+        VirtualClock.reset(2, 2);
+        VirtualClock.beingStarted();
+        Thread thread = new Thread(() -> {
+            VirtualClock.beingStarted();
+            paused.countDown();
+            VirtualClock.pause(1_000, () -> false);
+            VirtualClock.beingFinished();
+            done.countDown();
+        });
+        thread.start();
+
+        paused.await();
+        assertFalse(done.await(100, TimeUnit.MILLISECONDS));
+        assertEquals(0, VirtualClock.now());
+
+        // Once the other being finishes, the clock can advance.
+        VirtualClock.beingFinished();
+        assertTrue(done.await(1, TimeUnit.SECONDS));
+        assertEquals(1_000, VirtualClock.now());
+    }
+
+    @Test
+    public void testWakeCancelsVirtualPause() throws Exception {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        AtomicBoolean result = new AtomicBoolean(true);
+        CountDownLatch done = new CountDownLatch(1);
+
+        // A second running being keeps the clock from advancing.
+        VirtualClock.reset(2, 2);
+        VirtualClock.beingStarted();
+        Thread thread = new Thread(() -> {
+            VirtualClock.beingStarted();
+            result.set(VirtualClock.pause(1_000, cancelled::get));
+            VirtualClock.beingFinished();
+            done.countDown();
+        });
+        thread.start();
+
+        Thread.sleep(100);
+        cancelled.set(true);
+        PauseScheduler.wake(thread);
+
+        assertTrue(done.await(1, TimeUnit.SECONDS));
+        assertFalse(result.get());
+        assertEquals(0, VirtualClock.now());
+        VirtualClock.beingFinished();
+    }
+
+    @Test
+    public void testDelayAdvancesClock() throws Exception {
+        // Two asynchronous beings that don't own a thread.
+        VirtualClock.reset(2, 2);
+        VirtualClock.beingStarted();
+        VirtualClock.beingStarted();
+
+        CompletableFuture<Void> first = VirtualClock.delay(1_000);
+        assertFalse(first.isDone());
+        assertEquals(0, VirtualClock.now());
+
+        // Once both beings are delayed, the clock jumps to the
+        // first deadline.
+        CompletableFuture<Void> second = VirtualClock.delay(5_000);
+        first.get(1, TimeUnit.SECONDS);
+        assertEquals(1_000, VirtualClock.now());
+        assertFalse(second.isDone());
+
+        // The first being finishes, so the second delay expires.
+        VirtualClock.beingFinished();
+        second.get(1, TimeUnit.SECONDS);
+        assertEquals(5_000, VirtualClock.now());
+        VirtualClock.beingFinished();
+    }
+
+    @Test
+    public void testEndedDelayIsDiscarded() {
+        VirtualClock.reset(2, 2);
+        VirtualClock.beingStarted();
+        VirtualClock.beingStarted();
+
+        CompletableFuture<Void> delay = VirtualClock.delay(1_000);
+        delay.complete(null);
+        VirtualClock.beingFinished();
+
+        // Only the remaining delay is left to expire.
+        VirtualClock.delay(3_000).join();
+        VirtualClock.beingFinished();
+        assertEquals(3_000, VirtualClock.now());
+    }
+}
@@ -0,0 +1,59 @@
+package edu.vandy.simulator.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the JMH benchmarks once for each thread count in 1, 2, 4, ...
+ * up to twice the number of available cores. JMH does not support
+ * the thread count as a benchmark parameter, so each thread count is
+ * a separate run writing its own JSON result file.
+ * <p>
+ * Usage: {@code ./gradlew :benchmarks:jmhSweep [-Pjmh.includes=regex]}
+ */
+public class BenchmarkSweep {
+    /**
+     * Prevent construction of this class.
+     */
+    private BenchmarkSweep() {
+    }
+
+    /**
+     * @param args Optional benchmark include regex (defaults
+     *             to all palantiri manager benchmarks).
+     */
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0
+                ? args[0]
+                : PalantiriManagerBenchmark.class.getSimpleName();
+        int maxThreads = 2 * Runtime.getRuntime().availableProcessors();
+
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            runBenchmarks(include, threads);
+
+            // Always include the 2 x cores end point.
+            if (threads < maxThreads && threads * 2 > maxThreads) {
+                runBenchmarks(include, maxThreads);
+            }
+        }
+    }
+
+    /**
+     * Runs all matching benchmarks using the specified
+     * number of threads.
+     */
+    private static void runBenchmarks(String include, int threads)
+            throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(include)
+                .threads(threads)
+                .resultFormat(ResultFormatType.JSON)
+                .result("build/results/jmh/results-" + threads + "-threads.json")
+                .build();
+
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,108 @@
+package edu.vandy.simulator.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import edu.vandy.simulator.managers.palantiri.concurrentMapFairSemaphore.FairSemaphore;
+import edu.vandy.simulator.managers.palantiri.concurrentMapFairSemaphore.FairSemaphoreLF;
+
+/**
+ * Measures the cost of an acquire/release pair for each implemented
+ * {@link FairSemaphore.Factory.Type}, i.e., how efficiently each
+ * semaphore parks and wakes waiting threads. With fewer permits than
+ * benchmark threads the semaphores are measured under contention.
+ * <p>
+ * Use {@code
+ * ./gradlew :benchmarks:jmhSweep -Pjmh.includes=FairSemaphoreBenchmark}
+ * to sweep the thread count.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FairSemaphoreBenchmark {
+    /**
+     * The semaphore types to benchmark. The FairSemaphoreMO and
+     * FairSemaphoreCO assignment stubs are left out since they
+     * don't block anything until they have been completed.
+     */
+    @Param({"LOCK_FREE", "AQS_FAIR", "AQS_BARGING"})
+    public FairSemaphore.Factory.Type semaphoreType;
+
+    /**
+     * The number of permits of the semaphore.
+     */
+    @Param({"1", "4", "64"})
+    public int permitCount;
+
+    /**
+     * The semaphore under test.
+     */
+    private FairSemaphore mSemaphore;
+
+    /**
+     * Creates the semaphore for the current parameter combination
+     * through the factory.
+     */
+    @Setup
+    public void setup() {
+        FairSemaphore.Factory.setType(semaphoreType);
+        mSemaphore = FairSemaphore.Factory.newSemaphore(
+                permitCount, FairSemaphoreLF::new);
+    }
+
+    /**
+     * Restores the factory's default implementation.
+     */
+    @TearDown
+    public void tearDown() {
+        FairSemaphore.Factory.setType(null);
+    }
+
+    /**
+     * @return The number of available permits (consumed by JMH).
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public int throughput() {
+        return acquireAndRelease();
+    }
+
+    /**
+     * @return The number of available permits (consumed by JMH).
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public int latency() {
+        return acquireAndRelease();
+    }
+
+    /**
+     * Acquires a permit and immediately releases it.
+     *
+     * @return The number of permits available while holding the
+     * permit.
+     */
+    private int acquireAndRelease() {
+        mSemaphore.acquireUninterruptibly();
+        try {
+            return mSemaphore.availablePermits();
+        } finally {
+            mSemaphore.release();
+        }
+    }
+}
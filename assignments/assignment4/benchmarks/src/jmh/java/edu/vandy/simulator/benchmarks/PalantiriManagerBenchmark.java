@@ -0,0 +1,123 @@
+package edu.vandy.simulator.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import edu.vandy.simulator.Controller;
+import edu.vandy.simulator.managers.palantiri.Palantir;
+import edu.vandy.simulator.managers.palantiri.PalantiriManager;
+
+/**
+ * Measures the cost of an acquire/release pair for each implemented
+ * {@link PalantiriManager.Factory.Type} with no gazing time, i.e.,
+ * the pure synchronization overhead of each manager. Every benchmark
+ * thread repeatedly acquires a palantir and immediately releases it,
+ * so with fewer palantiri than threads the managers are measured
+ * under contention.
+ * <p>
+ * Throughput is reported in ops/s and latency as a sampled
+ * distribution (including p0.99) in nanoseconds. The thread count
+ * is swept by {@link BenchmarkSweep}.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PalantiriManagerBenchmark {
+    /**
+     * The manager types to benchmark. Only the fully implemented
+     * managers are listed since the student stubs can't acquire a
+     * palantir and would only produce errors.
+     */
+    @Param({"ARRAY_BLOCKING_QUEUE",
+            "ATOMIC_BITMAP",
+            "QUEUE_LOCK_SEMAPHORE",
+            "SHARDED_POOL",
+            "SUSPENDING_SPIN_LOCK_SEMAPHORE"})
+    public PalantiriManager.Factory.Type managerType;
+
+    /**
+     * The number of palantiri managed by the manager.
+     */
+    @Param({"1", "4", "64", "1024"})
+    public int palantirCount;
+
+    /**
+     * The manager under test.
+     */
+    private PalantiriManager mManager;
+
+    /**
+     * Creates the manager for the current parameter combination.
+     */
+    @Setup
+    public void setup() {
+        // Turn off all artificial simulation delays.
+        Controller.setPerformanceMode(true);
+        Controller.setLogging(false);
+
+        if (!managerType.isSupported()) {
+            throw new IllegalStateException(
+                    managerType + " is not supported in this build.");
+        }
+
+        // No simulator is needed since no being ever gazes.
+        mManager = PalantiriManager.Factory.newManager(
+                managerType, palantirCount, null);
+    }
+
+    /**
+     * Shuts down the manager after all iterations.
+     */
+    @TearDown
+    public void tearDown() {
+        mManager.shutdownNow();
+    }
+
+    /**
+     * @return The acquired palantir (consumed by JMH).
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public Palantir throughput() {
+        return acquireAndRelease();
+    }
+
+    /**
+     * @return The acquired palantir (consumed by JMH).
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Palantir latency() {
+        return acquireAndRelease();
+    }
+
+    /**
+     * Acquires a palantir and immediately releases it.
+     *
+     * @return The acquired palantir.
+     */
+    private Palantir acquireAndRelease() {
+        Palantir palantir = mManager.acquirePalantir(0);
+        if (palantir == null) {
+            throw new IllegalStateException(
+                    managerType + " failed to acquire a palantir.");
+        }
+        mManager.releasePalantir(palantir);
+        return palantir;
+    }
+}
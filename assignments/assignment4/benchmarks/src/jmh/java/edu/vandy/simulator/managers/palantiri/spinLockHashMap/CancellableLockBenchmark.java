@@ -0,0 +1,109 @@
+package edu.vandy.simulator.managers.palantiri.spinLockHashMap;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Measures a lock/unlock pair around a tiny critical section for each
+ * implemented {@link QueueLockHashMapMgr.LockType}, i.e., the cost of
+ * the lock itself and, with more than one benchmark thread, of handing
+ * it off between threads. This benchmark lives in the spinLockHashMap
+ * package since the CancellableLock implementations are
+ * package-private.
+ * <p>
+ * Use {@code
+ * ./gradlew :benchmarks:jmhSweep -Pjmh.includes=CancellableLockBenchmark}
+ * to sweep the thread count.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CancellableLockBenchmark {
+    /**
+     * The lock types to benchmark.
+     */
+    @Param({"MCS_SPIN_LOCK", "CLH_SPIN_LOCK", "TTAS_SPIN_LOCK"})
+    public QueueLockHashMapMgr.LockType lockType;
+
+    /**
+     * The lock under test.
+     */
+    private CancellableLock mLock;
+
+    /**
+     * Never cancels a lock attempt.
+     */
+    private final Supplier<Boolean> mNotCancelled = () -> false;
+
+    /**
+     * Shared state updated in the critical section.
+     */
+    private long mCounter;
+
+    /**
+     * Creates the lock for the current parameter.
+     */
+    @Setup
+    public void setup() {
+        mLock = lockType.newLock();
+    }
+
+    /**
+     * Lock/unlock throughput.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public long throughput() {
+        return lockAndUnlock();
+    }
+
+    /**
+     * Lock/unlock latency distribution.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public long latency() {
+        return lockAndUnlock();
+    }
+
+    /**
+     * Lock/unlock latency distribution with two threads contending,
+     * so most acquisitions require the lock to be handed off from
+     * the other thread.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Threads(2)
+    public long handoffLatency() {
+        return lockAndUnlock();
+    }
+
+    /**
+     * Increments the shared counter while holding the lock.
+     */
+    private long lockAndUnlock() {
+        mLock.lock(mNotCancelled);
+        try {
+            return ++mCounter;
+        } finally {
+            mLock.unlock();
+        }
+    }
+}